@@ -1,61 +1,44 @@
 package excel;
 
-import java.util.Map;
-
 public class Base {
     protected static final String BASE_FONT_NAME = "맑은 고딕";
     protected static final short BASE_FONT_HEIGHT_POINTS = 10;
     protected static final int POI_WIDTH_UNIT = 256;
-    private static final Map<Integer, Integer> CHARACTER_WIDTH_PIXELS_MAP = Map.ofEntries(
-        Map.entry(5, 4),
-        Map.entry(6, 4),
-        Map.entry(7, 5),
-        Map.entry(8, 6),
-        Map.entry(9, 7),
-        Map.entry(10, 7),
-        Map.entry(11, 8),
-        Map.entry(12, 9),
-        Map.entry(13, 9),
-        Map.entry(14, 10),
-        Map.entry(15, 11),
-        Map.entry(16, 12),
-        Map.entry(17, 13),
-        Map.entry(18, 13),
-        Map.entry(19, 14),
-        Map.entry(20, 15),
-        Map.entry(21, 15)
-        // Map.entry(22, 16.0),
-        // Map.entry(23, 17.0),
-        // Map.entry(24, 18.0)
-    );
-    private static Map<Integer, Integer> CHARACTER_HEIGHT_PIXELS_MAP = Map.ofEntries(
-        Map.entry(5, 12),
-        Map.entry(6, 13),
-        Map.entry(7, 13),
-        Map.entry(8, 16),
-        Map.entry(9, 16),
-        Map.entry(10, 18),
-        Map.entry(11, 22),
-        Map.entry(12, 23),
-        Map.entry(13, 26),
-        Map.entry(14, 27),
-        Map.entry(15, 32),
-        Map.entry(16, 35),
-        Map.entry(17, 35),
-        Map.entry(18, 35),
-        Map.entry(19, 40),
-        Map.entry(20, 42),
-        Map.entry(21, 42)
-        // Map.entry(22, 45),
-        // Map.entry(23, 47),
-        // Map.entry(24, 51)
-    );
+    private static final int MIN_TABLE_POINTS = 5; // 아래 표의 첫 번째 값의 Font points
+    // index: points - MIN_TABLE_POINTS(5 ~ 21 points), 맑은 고딕 기준
+    private static final int[] CHARACTER_WIDTH_PIXELS = {
+        4, 4, 5, 6, 7, 7, 8, 9, 9, 10, 11, 12, 13, 13, 14, 15, 15
+        // 22: 16, 23: 17, 24: 18
+    };
+    private static final int[] CHARACTER_HEIGHT_PIXELS = {
+        12, 13, 13, 16, 16, 18, 22, 23, 26, 27, 32, 35, 35, 35, 40, 42, 42
+        // 22: 45, 23: 47, 24: 51
+    };
 
     protected static int getCharacterWidthPixels(double points){
-        return CHARACTER_WIDTH_PIXELS_MAP.get((int)points);
+        return lookup(CHARACTER_WIDTH_PIXELS, points);
     }
 
     protected static int getCharacterHeightPixels(double points){
-        return CHARACTER_HEIGHT_PIXELS_MAP.get((int)points);
+        return lookup(CHARACTER_HEIGHT_PIXELS, points);
+    }
+
+    /**
+     * table에서 points에 해당하는 값을 찾는다.
+     * 표의 범위(5 ~ 21 points)를 벗어나면 가장 가까운 끝 값을 points에 비례하여 늘리거나 줄인다.
+     * @param table points별 Pixels
+     * @param points Font points
+     * @return Pixels(1 이상)
+     */
+    private static int lookup(final int[] table, final double points){
+        final int index = (int)points - MIN_TABLE_POINTS;
+        if(index < 0){
+            return Math.max(1, (int)Math.round(table[0] * points / MIN_TABLE_POINTS));
+        }
+        if(index >= table.length){
+            final int maxTablePoints = MIN_TABLE_POINTS + table.length - 1;
+            return (int)Math.round(table[table.length - 1] * points / maxTablePoints);
+        }
+        return table[index];
     }
 }
@@ -9,9 +9,7 @@ import org.apache.poi.hssf.usermodel.HSSFDataFormat;
 import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.Color;
 import org.apache.poi.ss.usermodel.FillPatternType;
-import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.ObjectData;
 import org.apache.poi.ss.usermodel.Picture;
@@ -21,13 +19,8 @@ import org.apache.poi.ss.usermodel.VerticalAlignment;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.ClientAnchor.AnchorType;
 import org.apache.poi.util.Units;
-import org.apache.poi.xssf.usermodel.IndexedColorMap;
-import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFClientAnchor;
-import org.apache.poi.xssf.usermodel.XSSFColor;
-import org.apache.poi.xssf.usermodel.XSSFFont;
 import org.apache.poi.xssf.usermodel.XSSFObjectData;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.STDvAspect;
 
 public class CellController {
@@ -39,8 +32,15 @@ public class CellController {
     private final Sheet worksheet;
     private final Cell workcell;
     private final Row workrow;
+    private CellStyleKey workcellStyleKey;
     private CellStyle workcellStyle;
-    private Font workfont;
+    private FontKey workfontKey;
+    private boolean styleChanged = false; // workcellStyleKey가 workcellStyle에 아직 적용되지 않음
+    private boolean fontChanged = false; // workfontKey가 workcellStyleKey에 아직 적용되지 않음
+    private boolean pending = false; // SheetController에 적용 대기로 등록됨
+    private TextLayout textLayout; // addText() 등으로 이어 붙이는 Text, null이면 아직 workcell의 값을 읽지 않음
+    private boolean textChanged = false; // textLayout이 workcell에 아직 입력되지 않음
+    private GlyphWidthTable glyphWidthTable; // workfontKey의 글자 폭, null이면 아직 찾지 않음
     private final Map<Integer, Picture> pictureList = new HashMap<>();
 
     public CellController(final SheetController sheetController, final int rowIndex, final int colIndex) {
@@ -51,13 +51,36 @@ public class CellController {
         this.workbook = excelController.getWorkbook();
         this.worksheet = sheetController.getWorksheet();
 
-        this.workcellStyle = workbook.createCellStyle();
-        workcellStyle.setVerticalAlignment(VerticalAlignment.TOP); // 글자 위쪽 맞춤
-        workcellStyle.setWrapText(true); // 텍스트 줄 바꿈
+        this.workcellStyleKey = CellStyleKey.createDefault(); // 글자 위쪽 맞춤, 텍스트 줄 바꿈
+        this.workfontKey = FontKey.createDefault();
+        this.workcellStyle = excelController.getCellStyle(workcellStyleKey);
 
         workrow = sheetController.getRow(rowIndex);
-        workcell = workrow.createCell(colIndex);
-        workcell.setCellStyle(workcellStyle);
+        Cell cell = workrow.getCell(colIndex);
+        if(cell == null){
+            workcell = workrow.createCell(colIndex);
+            workcell.setCellStyle(workcellStyle);
+        }else{
+            // 해제되었던 Cell을 다시 선택한 경우, Sheet에 남아있는 값과 CellStyle을 그대로 이어서 사용한다.
+            workcell = cell;
+            setCellStyle(cell.getCellStyle());
+        }
+    }
+
+    /**
+     * Row의 번호를 반환한다.
+     * @return rowIndex(0부터 시작)
+     */
+    protected int getRowIndex(){
+        return rowIndex;
+    }
+
+    /**
+     * Column의 번호를 반환한다.
+     * @return colIndex(0부터 시작)
+     */
+    protected int getColIndex(){
+        return colIndex;
     }
 
     /**
@@ -66,8 +89,8 @@ public class CellController {
      * @return this
      */
     public CellController setVerticalAlignment(final VerticalAlignment verticalAlignment){
-        workcellStyle.setVerticalAlignment(verticalAlignment);
-        return this;
+        workcellStyleKey.setVerticalAlignment(verticalAlignment);
+        return styleChanged();
     }
 
     /**
@@ -76,8 +99,8 @@ public class CellController {
      * @return this
      */
     public CellController setHorizontalAlignment(final HorizontalAlignment horizontalAlignment){
-        workcellStyle.setAlignment(horizontalAlignment);
-        return this;
+        workcellStyleKey.setHorizontalAlignment(horizontalAlignment);
+        return styleChanged();
     }
 
     /**
@@ -126,6 +149,8 @@ public class CellController {
      * @return this
      */
     public CellController setText(final String text){
+        sheetController.checkRowWritable(rowIndex);
+        discardTextLayout();
         workcell.setCellValue(text);
         return this;
     }
@@ -136,6 +161,8 @@ public class CellController {
      * @return this
      */
     public CellController setNumber(final int value){
+        sheetController.checkRowWritable(rowIndex);
+        discardTextLayout();
         workcell.setCellValue(value);
         return this;
     }
@@ -146,6 +173,8 @@ public class CellController {
      * @return this
      */
     public CellController setNumber(final float value){
+        sheetController.checkRowWritable(rowIndex);
+        discardTextLayout();
         workcell.setCellValue(value);
         return this;
     }
@@ -156,46 +185,154 @@ public class CellController {
      * @return this
      */
     public CellController setNumber(final double value){
+        sheetController.checkRowWritable(rowIndex);
+        discardTextLayout();
         workcell.setCellValue(value);
         return this;
     }
 
     /**
      * Cell에 설정된 workcellStyle 인스턴스를 반환한다.
+     * workcellStyle은 같은 속성을 가진 다른 Cell과 공유될 수 있으므로 직접 수정하지 말고 CellController의 setter를 사용한다.
+     * 아직 적용되지 않은 Style 변경이 있으면 먼저 적용한다.
      * @return workcellStyle
      */
     public CellStyle getWorkcellStyle(){
+        resolveCellStyle();
         return workcellStyle;
     }
 
     /**
      * workcell을 cellStyle로 교체한다.
+     * 이후 CellController의 setter를 호출하면 cellStyle은 수정되지 않고, cellStyle의 속성을 바탕으로 한 공유 CellStyle로 교체된다.
      * @param cellStyle
      * @return this
      */
     public CellController setCellStyle(final CellStyle cellStyle){
+        workcellStyleKey = CellStyleKey.from(cellStyle);
+        workfontKey = FontKey.from(workbook.getFontAt(cellStyle.getFontIndex()));
+        styleChanged = false;
+        fontChanged = false;
+        glyphWidthTable = null;
         workcellStyle = cellStyle;
         workcell.setCellStyle(workcellStyle);
         return this;
     }
 
+    /**
+     * workcellStyleKey가 변경되었음을 기록한다.
+     * Style 지연 적용이면 SheetController에 적용 대기로 등록하고, 아니면 바로 적용한다.
+     * @return this
+     */
+    private CellController styleChanged(){
+        styleChanged = true;
+        if(excelController.isDeferredStyleResolution()){
+            if(!pending){
+                pending = true;
+                sheetController.addPendingCellController(this);
+            }
+        }else{
+            resolveCellStyle();
+        }
+        return this;
+    }
+
+    /**
+     * workfontKey가 변경되었음을 기록한다.
+     * @return this
+     */
+    private CellController fontChanged(){
+        fontChanged = true;
+        glyphWidthTable = null;
+        return styleChanged();
+    }
+
+    /**
+     * workfontKey와 workcellStyleKey를 공유 Font, 공유 CellStyle로 바꿔 workcell에 적용한다.
+     * 기존 CellStyle과 Font는 다른 Cell과 공유될 수 있으므로 수정하지 않는다.(copy-on-write)
+     */
+    private void resolveCellStyle(){
+        if(fontChanged){
+            fontChanged = false;
+            workcellStyleKey.setFontIndex(excelController.getFont(workfontKey).getIndex());
+        }
+        if(styleChanged){
+            styleChanged = false;
+            CellStyle cellStyle = excelController.getCellStyle(workcellStyleKey);
+            if(cellStyle != workcellStyle){
+                sheetController.checkRowWritable(rowIndex);
+                workcellStyle = cellStyle;
+                workcell.setCellStyle(workcellStyle);
+            }
+        }
+    }
 
     /**
-     * R, G, B로 XSSFColor를 생성후 반환한다.
-     * workbook 구현체가 XSSFWorkbook이 아닐경우 null을 반환한다.
+     * SheetController에 적용 대기로 등록되어 있는지 반환한다.
+     * @return 적용되지 않은 작업이 남아있으면 true
+     */
+    protected boolean isPending(){
+        return pending;
+    }
+
+    /**
+     * 아직 적용되지 않은 작업을 workcell에 적용한다.
+     * finishWorkcell() 또는 Workbook을 출력할 때 호출된다.
+     */
+    protected void flush(){
+        pending = false;
+        resolveCellStyle();
+        if(textChanged){
+            textChanged = false;
+            sheetController.checkRowWritable(rowIndex);
+            workcell.setCellValue(textLayout.toString());
+        }
+    }
+
+    /**
+     * addText() 등으로 이어 붙일 TextLayout을 반환한다.
+     * 처음 호출할 때 workcell의 값으로 만든다.
+     * @return textLayout
+     */
+    private TextLayout getTextLayout(){
+        if(textLayout == null){
+            textLayout = new TextLayout(workcell.getStringCellValue());
+        }
+        return textLayout;
+    }
+
+    /**
+     **<pre>
+     **textLayout이 변경되었음을 기록한다.
+     **Text는 이어 붙일 때마다 workcell에 입력하지 않고, SheetController에 적용 대기로 등록했다가
+     **finishWorkcell() 또는 Workbook을 출력할 때 한 번만 입력한다.(중간 Text가 Shared String으로 쌓이지 않는다.)
+     * </pre>
+     */
+    private void textChanged(){
+        textChanged = true;
+        if(!pending){
+            pending = true;
+            sheetController.addPendingCellController(this);
+        }
+    }
+
+    /**
+     * setText() 등으로 workcell의 값을 직접 입력할 때, 이어 붙이던 Text를 버린다.
+     */
+    private void discardTextLayout(){
+        textLayout = null;
+        textChanged = false;
+    }
+
+    /**
+     * R, G, B를 0xRRGGBB 형태의 int로 변환한다.
      * @param R
      * @param G
      * @param B
-     * @return R, G, B로 XSSFColor를 생성 후 Color를 반환한다.
+     * @return 0xRRGGBB
      */
-    private Color getColor(final int R, final int G, final int B){
-        if(workbook instanceof XSSFWorkbook){
-            XSSFWorkbook xssfWorkbook = (XSSFWorkbook)workbook;
-            IndexedColorMap indexedColors = xssfWorkbook.getStylesSource().getIndexedColors();
-            return new XSSFColor(new java.awt.Color(R, G, B), indexedColors);
-        }else{
-            return null;
-        }
+    private static int toRgb(final int R, final int G, final int B){
+        return (R & 0xFF) << 16 | (G & 0xFF) << 8 | (B & 0xFF);
     }
 
     /**
@@ -206,12 +343,8 @@ public class CellController {
      * @return this
      */
     public CellController setCellColor(final int R, final int G, final int B){
-        Color color = getColor(R, G, B);
-
-        workcellStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        workcellStyle.setFillForegroundColor(color);
-
-        return this;
+        workcellStyleKey.setFill(FillPatternType.SOLID_FOREGROUND, toRgb(R, G, B));
+        return styleChanged();
     }
 
     /**
@@ -220,8 +353,8 @@ public class CellController {
      * @return this
      */
     public CellController setTopBorderStyle(final BorderStyle borderStyle){
-        workcellStyle.setBorderTop(borderStyle);
-        return this;
+        workcellStyleKey.setTopBorderStyle(borderStyle);
+        return styleChanged();
     }
 
     /**
@@ -230,8 +363,8 @@ public class CellController {
      * @return this
      */
     public CellController setBottomBorderStyle(final BorderStyle borderStyle){
-        workcellStyle.setBorderBottom(borderStyle);
-        return this;
+        workcellStyleKey.setBottomBorderStyle(borderStyle);
+        return styleChanged();
     }
 
     /**
@@ -240,8 +373,8 @@ public class CellController {
      * @return this
      */
     public CellController setLeftBorderStyle(final BorderStyle borderStyle){
-        workcellStyle.setBorderLeft(borderStyle);
-        return this;
+        workcellStyleKey.setLeftBorderStyle(borderStyle);
+        return styleChanged();
     }
 
     /**
@@ -250,8 +383,8 @@ public class CellController {
      * @return this
      */
     public CellController setRightBorderStyle(final BorderStyle borderStyle){
-        workcellStyle.setBorderRight(borderStyle);
-        return this;
+        workcellStyleKey.setRightBorderStyle(borderStyle);
+        return styleChanged();
     }
 
     /**
@@ -260,97 +393,89 @@ public class CellController {
      * @return this
      */
     public CellController setBorderStyle(final BorderStyle borderStyle){
-        return this
-              .setTopBorderStyle(borderStyle)
-              .setBottomBorderStyle(borderStyle)
-              .setLeftBorderStyle(borderStyle)
-              .setRightBorderStyle(borderStyle)
-        ;
+        workcellStyleKey.setBorderStyle(borderStyle, borderStyle, borderStyle, borderStyle);
+        return styleChanged();
     }
 
     /**
      * Cell의 Top-Border Color를 설정한다.
-     * workbook의 구현체가 XSSFWorkbook이어야 적용된다.
+     * workbook의 구현체가 XSSFWorkbook(또는 SXSSFWorkbook)이어야 적용된다.
      * @param R
      * @param G
      * @param B
      * @return this
      */
     public CellController setTopBorderColor(final int R, final int G, final int B){
-        if(workbook instanceof XSSFWorkbook){
-            XSSFColor color = (XSSFColor)getColor(R, G, B);
-            XSSFCellStyle xssfCellStyle = (XSSFCellStyle)workcellStyle;
-            xssfCellStyle.setTopBorderColor(color);
+        if(excelController.getXSSFWorkbook() != null){
+            workcellStyleKey.setTopBorderColor(toRgb(R, G, B));
+            styleChanged();
         }
         return this;
     }
 
     /**
      * Cell의 Bottom-Border Color를 설정한다.
-     * workbook의 구현체가 XSSFWorkbook이어야 적용된다.
+     * workbook의 구현체가 XSSFWorkbook(또는 SXSSFWorkbook)이어야 적용된다.
      * @param R
      * @param G
      * @param B
      * @return this
      */
     public CellController setBottomBorderColor(final int R, final int G, final int B){
-        if(workbook instanceof XSSFWorkbook){
-            XSSFColor color = (XSSFColor)getColor(R, G, B);
-            XSSFCellStyle xssfCellStyle = (XSSFCellStyle)workcellStyle;
-            xssfCellStyle.setBottomBorderColor(color);
+        if(excelController.getXSSFWorkbook() != null){
+            workcellStyleKey.setBottomBorderColor(toRgb(R, G, B));
+            styleChanged();
         }
         return this;
     }
 
     /**
      * Cell의 LEFT-Border Color를 설정한다.
-     * workbook의 구현체가 XSSFWorkbook이어야 적용된다.
+     * workbook의 구현체가 XSSFWorkbook(또는 SXSSFWorkbook)이어야 적용된다.
      * @param R
      * @param G
      * @param B
      * @return this
      */
     public CellController setLeftBorderColor(final int R, final int G, final int B){
-        if(workbook instanceof XSSFWorkbook){
-            XSSFColor color = (XSSFColor)getColor(R, G, B);
-            XSSFCellStyle xssfCellStyle = (XSSFCellStyle)workcellStyle;
-            xssfCellStyle.setLeftBorderColor(color);
+        if(excelController.getXSSFWorkbook() != null){
+            workcellStyleKey.setLeftBorderColor(toRgb(R, G, B));
+            styleChanged();
         }
         return this;
     }
 
     /**
      * Cell의 Right-Border Color를 설정한다.
-     * workbook의 구현체가 XSSFWorkbook이어야 적용된다.
+     * workbook의 구현체가 XSSFWorkbook(또는 SXSSFWorkbook)이어야 적용된다.
      * @param R
      * @param G
      * @param B
      * @return this
      */
     public CellController setRightBorderColor(final int R, final int G, final int B){
-        if(workbook instanceof XSSFWorkbook){
-            XSSFColor color = (XSSFColor)getColor(R, G, B);
-            XSSFCellStyle xssfCellStyle = (XSSFCellStyle)workcellStyle;
-            xssfCellStyle.setRightBorderColor(color);
+        if(excelController.getXSSFWorkbook() != null){
+            workcellStyleKey.setRightBorderColor(toRgb(R, G, B));
+            styleChanged();
         }
         return this;
     }
 
     /**
      * Cell의 Border Color를 설정한다.
-     * workbook의 구현체가 XSSFWorkbook이어야 적용된다.
+     * workbook의 구현체가 XSSFWorkbook(또는 SXSSFWorkbook)이어야 적용된다.
      * @param R
      * @param G
      * @param B
      * @return this
      */
     public CellController setBorderColor(final int R, final int G, final int B){
-        return this
-              .setTopBorderColor(R, G, B)
-              .setBottomBorderColor(R, G, B)
-              .setLeftBorderColor(R, G, B)
-              .setRightBorderColor(R, G, B)
-        ;
+        if(excelController.getXSSFWorkbook() != null){
+            final int rgb = toRgb(R, G, B);
+            workcellStyleKey.setBorderColor(rgb, rgb, rgb, rgb);
+            styleChanged();
+        }
+        return this;
     }
 
     /**
@@ -372,44 +497,28 @@ public class CellController {
         return this;
     }
 
-    /**
-     * workFont를 반환한다.
-     * workFont가 없을 경우 새로 생성 후 반환한다.
-     * @return workFont를 반환한다.
-     */
-    private Font getWorkFont(){
-        if(workfont == null){
-            workfont = workbook.createFont();
-            workfont.setFontName(Base.BASE_FONT_NAME);
-            workfont.setFontHeightInPoints(Base.BASE_FONT_HEIGHT_POINTS);
-            workcellStyle.setFont(workfont);
-        }
-        return workfont;
-    }
-
     /**
      * Cell의 Font Points 설정한다.
      * @param points 폰트 크기
      * @return this
      */
     public CellController setFontPoints(final short points){
-        getWorkFont().setFontHeightInPoints(points);
-        return this;
+        workfontKey.setFontHeightInPoints(points);
+        return fontChanged();
     }
 
     /**
      * Cell의 font color를 설정한다.
-     * workbook의 구현체가 XSSFWorkbook이어야 적용된다.
+     * workbook의 구현체가 XSSFWorkbook(또는 SXSSFWorkbook)이어야 적용된다.
      * @param R
      * @param G
      * @param B
      * @return this
      */
     public CellController setFontColor(int R, int G, int B){
-        if(workbook instanceof XSSFWorkbook){
-            XSSFColor color = (XSSFColor)getColor(R, G, B);
-            XSSFFont xssfFont = (XSSFFont)getWorkFont();
-            xssfFont.setColor(color);
+        if(excelController.getXSSFWorkbook() != null){
+            workfontKey.setColor(toRgb(R, G, B));
+            fontChanged();
         }
         return this;
     }
@@ -420,8 +529,8 @@ public class CellController {
      * @return this
      */
     public CellController setBold(boolean bold){
-        getWorkFont().setBold(bold);
-        return this;
+        workfontKey.setBold(bold);
+        return fontChanged();
     }
 
     /**
@@ -431,26 +540,21 @@ public class CellController {
      * @return this
      */
     public CellController setDataFormat(int dataformatIndex){
-        if(workbook instanceof XSSFWorkbook){
-            XSSFCellStyle xssfCellStyle = (XSSFCellStyle)workcellStyle;
-            xssfCellStyle.setDataFormat(dataformatIndex);
-        }else{
-            workcellStyle.setDataFormat((short)dataformatIndex);
-        }
-        return this;
+        workcellStyleKey.setDataFormat(dataformatIndex);
+        return styleChanged();
     }
 
     /**
      * Cell의 DataFormat을 설정한다.
-     * workbook의 구현체가 XSSFWorkbook이어야 적용된다.
+     * workbook의 구현체가 XSSFWorkbook(또는 SXSSFWorkbook)이어야 적용된다.
      * 참고 [표현형식 Index] - https://poi.apache.org/apidocs/dev/org/apache/poi/ss/usermodel/BuiltinFormats.html
      * @param dataformat 표현형식 Index, 예시) "#,##0"
      * @return 현재 인스턴스(CellController)
      */
     public CellController setDataFormat(String dataformat){
-        if(workbook instanceof XSSFWorkbook){
-            XSSFCellStyle xssfCellStyle = (XSSFCellStyle)workcellStyle;
-            xssfCellStyle.setDataFormat(HSSFDataFormat.getBuiltinFormat(dataformat));
+        if(excelController.getXSSFWorkbook() != null){
+            workcellStyleKey.setDataFormat(HSSFDataFormat.getBuiltinFormat(dataformat));
+            styleChanged();
         }
         return this;
     }
@@ -467,10 +571,13 @@ public class CellController {
      **<pre>
      **1. Cell에 Image를 넣는다.
      **2. imageObject의 imageKey가 기존에 사용/등록 되었다면, 기존 Image byte[]를 사용한다. 따라서 기존에 등록된 imageKey를 넣으면 기존 이미지를 사용할 수 있고, 새로운 Image를 사용하기 위해서는 imageKey 값이 중복되지 않게 설정해야 한다.
+     **   imageKey가 달라도 Image byte[]의 내용이 같으면 Workbook에는 하나의 Image만 저장된다.
      **3. 기존의 등록된 ImageKey는 getImageKeySet()로 확인한다.
      **4. positionObject의 dx, dy의 기준은 px이다.
      **5. Cell의 Width와 Height를 초과하도록 px가 설정되어도 Image의 실제 크기는 Width와 Height 보다 클 수 없다.
-     **6. 참고 - https://stackoverflow.com/questions/47503477/apache-poi-write-image-and-text-excel
+     **6. ExcelController.setImageResampler()가 설정되어 있으면 Image는 표시 크기(dx2 - dx1, dy2 - dy1)로 축소되어 저장된다.
+     **   이때는 imageKey로 기존 Image를 찾지 않고 imageObject의 내용과 표시 크기로 찾으므로, 같은 Image를 다른 크기로 표시하면 크기마다 따로 축소된다.
+     **7. 참고 - https://stackoverflow.com/questions/47503477/apache-poi-write-image-and-text-excel
      * </pre>
      * @param imageObject
      * @param positionObject
@@ -478,8 +585,6 @@ public class CellController {
      */
     public CellController setImage(final ImageObject imageObject, final Position positionObject){
         final String imageKey = imageObject.getImageKey();
-        final byte[] imageByteArray = imageObject.getImageByteArray();
-        final ImageFormat imageFormat = imageObject.getImageFormat();
         final int dx1 = positionObject.getDx1();
         final int dy1 = positionObject.getDy1();
         final int dx2 = positionObject.getDx2();
@@ -487,10 +592,14 @@ public class CellController {
 
         int imageIndex = -99999;
         final Map<String, Integer> imageIndexMap = excelController.getImageIndexMap();
-        if(imageIndexMap.containsKey(imageKey)){
+        if(excelController.getImageResampler() != null){
+            // imageKey의 기존 Image는 다른 크기로 축소되었을 수 있으므로, 내용과 표시 크기로 찾는다.
+            imageIndex = excelController.addPicture(imageObject, dx2 - dx1, dy2 - dy1);
+            imageIndexMap.putIfAbsent(imageKey, imageIndex);
+        }else if(imageIndexMap.containsKey(imageKey)){
             imageIndex = imageIndexMap.get(imageKey);
         }else{
-            imageIndex = workbook.addPicture(imageByteArray, imageFormat.getValue());
+            imageIndex = excelController.addPicture(imageObject, dx2 - dx1, dy2 - dy1);
             imageIndexMap.put(imageKey, imageIndex);
         }
 
@@ -515,6 +624,7 @@ public class CellController {
      **<pre>
      **1. Cell에 Embedded File를 넣는다.
      **2. file fileName 기존에 사용/등록 되었다면, 기존 fileByteArray를 사용한다. 따라서 기존에 등록/사용된 fileName를 넣으면 기존 file을 사용할 수 있고, 새로운 file를 사용하기 위해서는 fileName 값이 중복되지 않게 설정해야 한다.
+     **   fileName이 달라도 fileByteArray의 내용이 같으면 Workbook에는 처음 등록된 fileName의 file 하나만 저장된다.
      **3. 기존의 등록된 fileName getfileNameSet()로 확인한다.
      **4. positionObject의 dx, dy의 기준은 px이다.
      **5. Cell의 Width와 Height를 초과하도록 px가 설정되어도 파일 아이콘 Image의 실제 크기는 Width와 Height 보다 클 수 없다.
@@ -526,7 +636,6 @@ public class CellController {
      */
     public CellController setFile(final FileObject fileObject, final Position position) throws IOException{
         final String fileName = fileObject.getFileName();
-        final byte[] fileByteArray = fileObject.getFileByteArray();
         final FileFormat fileFormat = fileObject.getFileFormat();
         final int dx1 = position.getDx1();
         final int dy1 = position.getDy1();
@@ -534,15 +643,14 @@ public class CellController {
         final int dy2 = position.getDy2();
 
         int fileIndex = -99999;
-        final Map<String, Integer> imageIndexMap = excelController.getImageIndexMap();
         final Map<String, Integer> fileIndexMap = excelController.getFileIndexMap();
         if(fileIndexMap.containsKey(fileName)){
             fileIndex = fileIndexMap.get(fileName);
         }else{
-            fileIndex = workbook.addOlePackage(fileByteArray, fileName, fileName, fileName);
+            fileIndex = excelController.addOlePackage(fileObject);
             fileIndexMap.put(fileName, fileIndex);
         }
-        int imageIndex = imageIndexMap.get(fileFormat.getIconName());
+        int imageIndex = excelController.getIconImageIndex(fileFormat);
 
         XSSFClientAnchor anchor = new XSSFClientAnchor();
         anchor.setRow1(rowIndex);
@@ -564,51 +672,6 @@ public class CellController {
     }
 
 
-    /**
-     * 한 Line에 몇 글자가 들어갈 수 있는지 판단하여 text의 총 Line 수를 구한다.
-     * @param text
-     * @return 한 Line에 몇 글자가 들어갈 수 있는지 판단하여 text의 총 Line 수를 구한다.
-     */
-    private int getLineCountFromText(CharSequence text, double maxCharacterCountInWidth){
-        int newLineCnt = 0;
-        double textCnt = 0d;
-
-        for(int i = 0; i < text.length(); i++){
-            char c = text.charAt(i);
-
-            if(c == '\n' || c == '\r'){
-                if(textCnt > 0d){
-                    double lineCnt = textCnt / maxCharacterCountInWidth;
-                    newLineCnt += (int)(Math.ceil(lineCnt));
-                    textCnt = 0d;
-                }else{
-                    newLineCnt++;
-                }
-                continue;
-            }else if(c == '"' || c == '\'' || c == '.' || c == ','){
-                // continue;
-            }else if(c == 'l' || c == 'i' || c == 'j'){
-                textCnt += 0.25;
-            }else if(c == '(' || c == ')' || c == '{' || c == '}' || c == '[' || c == ']' || c == '!' || c == 'f' || c == 't' || c == 'I'){
-                textCnt += 0.3333;
-            }
-            else if(c == ' ' || c == '-' || c == '_' || c == '*' ||  Character.isDigit(c) || (c >= 'a' && c <= 'z')){
-                textCnt += 0.5;
-            }else if(c >= 'A' && c <= 'Z'){
-                textCnt += 0.8;
-            }else{
-                textCnt += 1d;
-            }
-
-            if(i == text.length() - 1){
-                double lineCnt = textCnt / maxCharacterCountInWidth;
-                newLineCnt += (int)(Math.ceil(lineCnt));
-            }
-        }
-
-        return newLineCnt;
-    }
-
     /**
      * 글자의 높이를 Pixels로 구한다.
      * Font Points를 Pixels로 변환한 후 + a값을 더한다.
@@ -616,29 +679,75 @@ public class CellController {
      * @return 글자의 높이를 Pixel로 구한다.
      */
     private int getFontHeightPixels(){
-        final int fontPoints = getWorkFont().getFontHeightInPoints();
+        final int fontPoints = workfontKey.getFontHeightInPoints();
         return Base.getCharacterHeightPixels(fontPoints);
     }
 
     /**
-     * text가 한줄 또는 여러줄 일 경우 높이가 몇 Pixels인지 구한다.
-     * @param text
-     * @return text가 한줄 또는 여러줄 일 경우 높이가 몇 Pixels인지 구한다.
+     * Cell의 Text(textLayout)가 한줄 또는 여러줄 일 경우 높이가 몇 Pixels인지 구한다.
+     * @return Text가 한줄 또는 여러줄 일 경우 높이가 몇 Pixels인지 구한다.
      */
-    private int getTextHeightPixels(final String text){
-        final int fontPoints = getWorkFont().getFontHeightInPoints();
+    private int getTextHeightPixels(){
         final int cellWidth = worksheet.getColumnWidth(colIndex);
-        final int cellWidthPixels = UnitConverter.columnWidthToPixels(cellWidth);
+        return getTextHeightPixels(UnitConverter.columnWidthToPixels(cellWidth));
+    }
+
+    /**
+     * Cell의 Width가 cellWidthPixels일 때 Text(textLayout)의 높이가 몇 Pixels인지 구한다.
+     * @param cellWidthPixels Cell의 Width(Pixels)
+     * @return Text의 높이(Pixels)
+     */
+    private int getTextHeightPixels(final int cellWidthPixels){
+        final int fontPoints = workfontKey.getFontHeightInPoints();
         final int fontPixels = UnitConverter.pointsToPixels(fontPoints);
         final int fontHeightPixels = getFontHeightPixels();
         final double maxCharacterCountInWidth = cellWidthPixels / fontPixels;
         
-        final int lineCnt = getLineCountFromText(text, maxCharacterCountInWidth);
+        final int lineCnt = getTextLayout().getLineCount(maxCharacterCountInWidth, getGlyphWidthTable());
         final int textHeightPixels = lineCnt * fontHeightPixels;
 
         return textHeightPixels;
     }
 
+    /**
+     **<pre>
+     **지연된 Row Height를 맞출 때 이 Cell에 필요한 높이를 구한다.(SheetController.fitRowHeights()에서 사용)
+     **Column Width는 호출한 쪽에서 미리 읽어 전달하므로, Cell마다 다른 Thread에서 호출해도 된다.
+     **setText() 등으로 이어 붙이던 Text를 버렸으면 0을 반환한다.
+     * </pre>
+     * @param cellWidthPixels Cell의 Width(Pixels)
+     * @return 필요한 높이(Pixels)
+     */
+    protected int getRequiredHeightPixels(final int cellWidthPixels){
+        return textLayout == null ? 0 : getTextHeightPixels(cellWidthPixels);
+    }
+
+    /**
+     * addText() 등으로 Text가 바뀐 뒤 Row Height를 맞춘다.
+     * Row Height를 지연하여 맞추면 SheetController에 등록만 하고, 아니면 Text 높이가 Row Height보다 클 때 바로 늘린다.
+     */
+    private void fitRowHeight(){
+        if(excelController.isDeferredRowHeight()){
+            sheetController.addRowHeightCellController(this);
+            return;
+        }
+        final int textHeightPixels = getTextHeightPixels();
+        if(UnitConverter.pointsToPixels(workrow.getHeightInPoints()) < textHeightPixels){
+            setHeightInPixels(textHeightPixels);
+        }
+    }
+
+    /**
+     * workfontKey(이름, 크기, Bold)의 글자 폭 표를 반환한다.
+     * @return GlyphWidthTable
+     */
+    private GlyphWidthTable getGlyphWidthTable(){
+        if(glyphWidthTable == null){
+            glyphWidthTable = FontMetricsRegistry.getGlyphWidthTable(workfontKey.getFontName(), workfontKey.getFontHeightInPoints(), workfontKey.isBold());
+        }
+        return glyphWidthTable;
+    }
+
     /**
      * heightPixels이 몇 Line인지 구한다.
      * @param heightPixels
@@ -656,18 +765,9 @@ public class CellController {
      */
     public CellController addText(final String text){
         if(text != null && text.length() > 0){
-            int maxHeightPixels = UnitConverter.pointsToPixels(workrow.getHeightInPoints());
-        
-            String fullText = workcell.getStringCellValue() + text;
-            
-            int textHeightPixels = getTextHeightPixels(fullText);
-            
-            if(maxHeightPixels < textHeightPixels){
-                maxHeightPixels = textHeightPixels;
-            }
-
-            setText(fullText);
-            setHeightInPixels(maxHeightPixels);
+            getTextLayout().append(text);
+            textChanged();
+            fitRowHeight();
         }
 
         return this;
@@ -698,7 +798,6 @@ public class CellController {
         if(imageObject != null){
             final int cellWidth = worksheet.getColumnWidth(colIndex);
             final int cellWidthPixels = UnitConverter.columnWidthToPixels(cellWidth);
-            final int maxHeightPixels = UnitConverter.pointsToPixels(workrow.getHeightInPoints());
             final int sourceImageWidth = imageObject.getWidth();
             final int sourceImageHeight = imageObject.getHeight();
             
@@ -721,23 +820,17 @@ public class CellController {
 
             int imageLineCount = getLineCountFromHeightPixels(imageHeightPixels);
 
-            String text = workcell.getStringCellValue();
-            int fromTextHeightPixels = getTextHeightPixels(text);
+            final TextLayout text = getTextLayout();
+            int fromTextHeightPixels = getTextHeightPixels();
 
             boolean isStart = text.length() == 0;
-            for(int i = (isStart ? 1 : 0); i < imageLineCount + 1; i++){ // 엑셀에서 기본으로 빈 텍스트는 한 줄임.
-                text += "\n";
-            }
-
-            int toTextHeightPixels = getTextHeightPixels(text);
+            text.append("\n".repeat(imageLineCount + (isStart ? 0 : 1))); // 엑셀에서 기본으로 빈 텍스트는 한 줄임.
 
-            if(maxHeightPixels < toTextHeightPixels){
-                setHeightInPixels(toTextHeightPixels);
-            }
+            fitRowHeight();
 
             setImage(imageObject, new Position(0 + padding, fromTextHeightPixels + padding, imageWidthPixels - padding, fromTextHeightPixels + imageHeightPixels - padding));
 
-            setText(text);
+            textChanged();
         }
 
         return this;
@@ -763,12 +856,11 @@ public class CellController {
      */
     public CellController addFile(final FileObject file, final int padding) throws IOException{
         if(file != null){
-            final int maxHeightPixel = UnitConverter.pointsToPixels(workrow.getHeightInPoints());
             final int size = 30;
 
             int imageLineCount = getLineCountFromHeightPixels(size);
 
-            String text = workcell.getStringCellValue();
+            final TextLayout text = getTextLayout();
             boolean isStart =
                 (text.length() == 0) ||
                 (
@@ -780,21 +872,15 @@ public class CellController {
                 )
             ;
 
-            int fromTextHeightPixel = getTextHeightPixels(text);
+            int fromTextHeightPixel = getTextHeightPixels();
 
-            for(int i = (isStart ? 1 : 0); i < imageLineCount + 1; i++){ // 엑셀에서 기본으로 빈 텍스트는 한 줄임.
-                text += "\n";
-            }
+            text.append("\n".repeat(imageLineCount + (isStart ? 0 : 1))); // 엑셀에서 기본으로 빈 텍스트는 한 줄임.
 
-            int toTextHeightPixel = getTextHeightPixels(text);
-            
-            if(maxHeightPixel < toTextHeightPixel){
-                setHeightInPixels(toTextHeightPixel);
-            }
+            fitRowHeight();
 
             setFile(file, new Position(0 + padding, fromTextHeightPixel + padding, size - padding, fromTextHeightPixel + size - padding));
 
-            setText(text);
+            textChanged();
         }
 
         return this;
@@ -805,6 +891,7 @@ public class CellController {
      * @return SheetController
      */
     public SheetController finishWorkcell(){
+        sheetController.finishCellController(this);
         return sheetController;
     }
 }
@@ -0,0 +1,15 @@
+package excel;
+
+/**
+ **<pre>
+ **SheetController가 선택된 CellController를 언제까지 보관할지 정하는 정책.
+ **해제된 Cell을 다시 선택하면 Sheet에 남아있는 Cell(값, CellStyle)로부터 CellController가 새로 만들어진다.
+ **단, 해제되기 전에 삽입한 Image의 정보는 새 CellController에 남지 않으므로 setImageLineColor()로 변경할 수 없다.
+ * </pre>
+ */
+public enum CellRetentionPolicy {
+    KEEP_ALL, // Workbook이 close될 때까지 모두 보관한다.(기본값)
+    KEEP_LAST_ROWS, // 마지막으로 선택한 Row를 기준으로 최근 N개 Row의 CellController만 보관한다.
+    DROP_ON_FINISH // finishWorkcell()을 호출하면 해제한다.
+    ;
+}
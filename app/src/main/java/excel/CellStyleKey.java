@@ -0,0 +1,302 @@
+package excel;
+
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+
+/**
+ **<pre>
+ **CellStyle의 속성 전체(정렬, 줄 바꿈, 채우기, 테두리, 테두리 색, Font, DataFormat)를 나타내는 Key.
+ **속성은 몇 개의 int/long에 압축되어 저장되므로, setter는 POI 객체나 새 Key를 만들지 않는다.
+ **CellController는 자신의 Key를 직접 수정하고, ExcelController는 copy()한 Key로 CellStyle을 공유한다.
+ **따라서 ExcelController에 저장된 Key는 수정되지 않는다.(copy-on-write)
+ **색상은 0xRRGGBB 형태의 int이며, 색상이 없으면 NO_COLOR이다.
+ * </pre>
+ */
+final class CellStyleKey {
+    static final int NO_COLOR = -1;
+
+    private static final HorizontalAlignment[] HORIZONTAL_ALIGNMENTS = HorizontalAlignment.values();
+    private static final VerticalAlignment[] VERTICAL_ALIGNMENTS = VerticalAlignment.values();
+    private static final FillPatternType[] FILL_PATTERNS = FillPatternType.values();
+    private static final BorderStyle[] BORDER_STYLES = BorderStyle.values();
+
+    // format의 bit 배치 (enum의 ordinal을 저장한다)
+    private static final int HORIZONTAL_SHIFT = 0;  // 4 bits
+    private static final int VERTICAL_SHIFT = 4;    // 3 bits
+    private static final int WRAP_SHIFT = 7;        // 1 bit
+    private static final int FILL_SHIFT = 8;        // 5 bits
+    private static final int TOP_SHIFT = 13;        // 4 bits
+    private static final int BOTTOM_SHIFT = 17;     // 4 bits
+    private static final int LEFT_SHIFT = 21;       // 4 bits
+    private static final int RIGHT_SHIFT = 25;      // 4 bits
+    private static final int BORDER_MASK = 0xF;
+
+    private int format;
+    private int fillColor;
+    private long topBottomBorderColor; // 상위 32bit: top, 하위 32bit: bottom
+    private long leftRightBorderColor; // 상위 32bit: left, 하위 32bit: right
+    private int fontIndex;
+    private int dataFormat;
+
+    private CellStyleKey() {
+    }
+
+    /**
+     * CellController가 처음 생성될 때 사용하는 기본 Key를 생성한다.
+     * 글자 위쪽 맞춤, 텍스트 줄 바꿈, 기본 Font(index 0)
+     * @return 새 기본 Key
+     */
+    static CellStyleKey createDefault(){
+        CellStyleKey key = new CellStyleKey();
+        key.setHorizontalAlignment(HorizontalAlignment.GENERAL);
+        key.setVerticalAlignment(VerticalAlignment.TOP);
+        key.setWrapText(true);
+        key.setFill(FillPatternType.NO_FILL, NO_COLOR);
+        key.setBorderStyle(BorderStyle.NONE, BorderStyle.NONE, BorderStyle.NONE, BorderStyle.NONE);
+        key.setBorderColor(NO_COLOR, NO_COLOR, NO_COLOR, NO_COLOR);
+        return key;
+    }
+
+    /**
+     * 이미 만들어진 CellStyle의 속성을 읽어 Key를 생성한다.
+     * RGB가 아닌 색상(theme, indexed)은 NO_COLOR로 읽힌다.
+     * @param cellStyle
+     * @return cellStyle의 속성으로 만든 Key
+     */
+    static CellStyleKey from(final CellStyle cellStyle){
+        CellStyleKey key = new CellStyleKey();
+        key.setHorizontalAlignment(cellStyle.getAlignment());
+        key.setVerticalAlignment(cellStyle.getVerticalAlignment());
+        key.setWrapText(cellStyle.getWrapText());
+        key.setBorderStyle(cellStyle.getBorderTop(), cellStyle.getBorderBottom(), cellStyle.getBorderLeft(), cellStyle.getBorderRight());
+        key.setFontIndex(cellStyle.getFontIndex());
+        key.setDataFormat(cellStyle.getDataFormat());
+        if(cellStyle instanceof XSSFCellStyle){
+            XSSFCellStyle xssfCellStyle = (XSSFCellStyle)cellStyle;
+            key.setFill(cellStyle.getFillPattern(), toRgb(xssfCellStyle.getFillForegroundXSSFColor()));
+            key.setBorderColor(
+                toRgb(xssfCellStyle.getTopBorderXSSFColor()),
+                toRgb(xssfCellStyle.getBottomBorderXSSFColor()),
+                toRgb(xssfCellStyle.getLeftBorderXSSFColor()),
+                toRgb(xssfCellStyle.getRightBorderXSSFColor())
+            );
+        }else{
+            key.setFill(cellStyle.getFillPattern(), NO_COLOR);
+            key.setBorderColor(NO_COLOR, NO_COLOR, NO_COLOR, NO_COLOR);
+        }
+        return key;
+    }
+
+    /**
+     * XSSFColor를 0xRRGGBB로 변환한다.
+     * @param color
+     * @return 0xRRGGBB, RGB 값이 없으면 NO_COLOR
+     */
+    static int toRgb(final XSSFColor color){
+        if(color == null){
+            return NO_COLOR;
+        }
+        byte[] rgb = color.getRGB();
+        if(rgb == null || rgb.length < 3){
+            return NO_COLOR;
+        }
+        return (rgb[0] & 0xFF) << 16 | (rgb[1] & 0xFF) << 8 | (rgb[2] & 0xFF);
+    }
+
+    /**
+     * 같은 속성을 가진 새 Key를 반환한다.
+     * @return 복사된 Key
+     */
+    CellStyleKey copy(){
+        CellStyleKey key = new CellStyleKey();
+        key.copyFrom(this);
+        return key;
+    }
+
+    /**
+     * other의 속성을 이 Key에 복사한다.
+     * @param other
+     */
+    void copyFrom(final CellStyleKey other){
+        format = other.format;
+        fillColor = other.fillColor;
+        topBottomBorderColor = other.topBottomBorderColor;
+        leftRightBorderColor = other.leftRightBorderColor;
+        fontIndex = other.fontIndex;
+        dataFormat = other.dataFormat;
+    }
+
+    private int getBits(final int shift, final int mask){
+        return (format >>> shift) & mask;
+    }
+
+    private void setBits(final int shift, final int mask, final int value){
+        format = (format & ~(mask << shift)) | ((value & mask) << shift);
+    }
+
+    private static long packColors(final int high, final int low){
+        return (long)high << 32 | (low & 0xFFFFFFFFL);
+    }
+
+    void setHorizontalAlignment(final HorizontalAlignment horizontalAlignment){
+        setBits(HORIZONTAL_SHIFT, 0xF, horizontalAlignment.ordinal());
+    }
+
+    void setVerticalAlignment(final VerticalAlignment verticalAlignment){
+        setBits(VERTICAL_SHIFT, 0x7, verticalAlignment.ordinal());
+    }
+
+    void setWrapText(final boolean wrapText){
+        setBits(WRAP_SHIFT, 0x1, wrapText ? 1 : 0);
+    }
+
+    void setFill(final FillPatternType fillPattern, final int fillColor){
+        setBits(FILL_SHIFT, 0x1F, fillPattern.ordinal());
+        this.fillColor = fillColor;
+    }
+
+    void setTopBorderStyle(final BorderStyle borderStyle){
+        setBits(TOP_SHIFT, BORDER_MASK, borderStyle.ordinal());
+    }
+
+    void setBottomBorderStyle(final BorderStyle borderStyle){
+        setBits(BOTTOM_SHIFT, BORDER_MASK, borderStyle.ordinal());
+    }
+
+    void setLeftBorderStyle(final BorderStyle borderStyle){
+        setBits(LEFT_SHIFT, BORDER_MASK, borderStyle.ordinal());
+    }
+
+    void setRightBorderStyle(final BorderStyle borderStyle){
+        setBits(RIGHT_SHIFT, BORDER_MASK, borderStyle.ordinal());
+    }
+
+    void setBorderStyle(final BorderStyle top, final BorderStyle bottom, final BorderStyle left, final BorderStyle right){
+        setTopBorderStyle(top);
+        setBottomBorderStyle(bottom);
+        setLeftBorderStyle(left);
+        setRightBorderStyle(right);
+    }
+
+    void setTopBorderColor(final int rgb){
+        topBottomBorderColor = packColors(rgb, getBottomBorderColor());
+    }
+
+    void setBottomBorderColor(final int rgb){
+        topBottomBorderColor = packColors(getTopBorderColor(), rgb);
+    }
+
+    void setLeftBorderColor(final int rgb){
+        leftRightBorderColor = packColors(rgb, getRightBorderColor());
+    }
+
+    void setRightBorderColor(final int rgb){
+        leftRightBorderColor = packColors(getLeftBorderColor(), rgb);
+    }
+
+    void setBorderColor(final int top, final int bottom, final int left, final int right){
+        topBottomBorderColor = packColors(top, bottom);
+        leftRightBorderColor = packColors(left, right);
+    }
+
+    void setFontIndex(final int fontIndex){
+        this.fontIndex = fontIndex;
+    }
+
+    void setDataFormat(final int dataFormat){
+        this.dataFormat = dataFormat;
+    }
+
+    HorizontalAlignment getHorizontalAlignment() {
+        return HORIZONTAL_ALIGNMENTS[getBits(HORIZONTAL_SHIFT, 0xF)];
+    }
+
+    VerticalAlignment getVerticalAlignment() {
+        return VERTICAL_ALIGNMENTS[getBits(VERTICAL_SHIFT, 0x7)];
+    }
+
+    boolean isWrapText() {
+        return getBits(WRAP_SHIFT, 0x1) == 1;
+    }
+
+    FillPatternType getFillPattern() {
+        return FILL_PATTERNS[getBits(FILL_SHIFT, 0x1F)];
+    }
+
+    int getFillColor() {
+        return fillColor;
+    }
+
+    BorderStyle getTopBorderStyle() {
+        return BORDER_STYLES[getBits(TOP_SHIFT, BORDER_MASK)];
+    }
+
+    BorderStyle getBottomBorderStyle() {
+        return BORDER_STYLES[getBits(BOTTOM_SHIFT, BORDER_MASK)];
+    }
+
+    BorderStyle getLeftBorderStyle() {
+        return BORDER_STYLES[getBits(LEFT_SHIFT, BORDER_MASK)];
+    }
+
+    BorderStyle getRightBorderStyle() {
+        return BORDER_STYLES[getBits(RIGHT_SHIFT, BORDER_MASK)];
+    }
+
+    int getTopBorderColor() {
+        return (int)(topBottomBorderColor >>> 32);
+    }
+
+    int getBottomBorderColor() {
+        return (int)topBottomBorderColor;
+    }
+
+    int getLeftBorderColor() {
+        return (int)(leftRightBorderColor >>> 32);
+    }
+
+    int getRightBorderColor() {
+        return (int)leftRightBorderColor;
+    }
+
+    int getFontIndex() {
+        return fontIndex;
+    }
+
+    int getDataFormat() {
+        return dataFormat;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = format;
+        result = 31 * result + fillColor;
+        result = 31 * result + Long.hashCode(topBottomBorderColor);
+        result = 31 * result + Long.hashCode(leftRightBorderColor);
+        result = 31 * result + fontIndex;
+        result = 31 * result + dataFormat;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj){
+            return true;
+        }
+        if(!(obj instanceof CellStyleKey)){
+            return false;
+        }
+        CellStyleKey other = (CellStyleKey)obj;
+        return format == other.format
+            && fillColor == other.fillColor
+            && topBottomBorderColor == other.topBottomBorderColor
+            && leftRightBorderColor == other.leftRightBorderColor
+            && fontIndex == other.fontIndex
+            && dataFormat == other.dataFormat;
+    }
+}
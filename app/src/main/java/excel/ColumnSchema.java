@@ -0,0 +1,216 @@
+package excel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+
+/**
+ **<pre>
+ **SheetController.appendRows()에 사용되는 Column들의 타입, Style, DataFormat 정보.
+ **addColumn()으로 Column을 추가하고, Style setter는 마지막으로 추가한 Column에 적용된다.
+ **같은 Column의 Cell들은 하나의 공유 CellStyle을 사용한다.
+ **예시)
+ **new ColumnSchema()
+ **    .addColumn(ColumnType.TEXT).setBold(true)
+ **    .addColumn(ColumnType.NUMBER, "#,##0")
+ **    .addColumn(ColumnType.DATE, "yyyy-mm-dd").setHorizontalAlignment(HorizontalAlignment.CENTER);
+ * </pre>
+ */
+public class ColumnSchema {
+    private final List<Column> columnList = new ArrayList<>();
+
+    /**
+     * Column 하나의 타입, Style, DataFormat
+     */
+    static final class Column {
+        private final ColumnType columnType;
+        private final CellStyleKey cellStyleKey = CellStyleKey.createDefault();
+        private final FontKey fontKey = FontKey.createDefault();
+        private String dataFormat; // null이면 DataFormat을 지정하지 않는다.
+
+        private Column(final ColumnType columnType, final String dataFormat) {
+            this.columnType = columnType;
+            this.dataFormat = dataFormat;
+        }
+
+        ColumnType getColumnType() {
+            return columnType;
+        }
+
+        CellStyleKey getCellStyleKey() {
+            return cellStyleKey;
+        }
+
+        FontKey getFontKey() {
+            return fontKey;
+        }
+
+        String getDataFormat() {
+            return dataFormat;
+        }
+    }
+
+    /**
+     * Column을 추가한다.
+     * @param columnType Column의 타입
+     * @return this
+     */
+    public ColumnSchema addColumn(final ColumnType columnType){
+        return addColumn(columnType, null);
+    }
+
+    /**
+     * DataFormat을 지정하여 Column을 추가한다.
+     * @param columnType Column의 타입
+     * @param dataFormat 표현형식, 예시) "#,##0", "yyyy-mm-dd"
+     * @return this
+     */
+    public ColumnSchema addColumn(final ColumnType columnType, final String dataFormat){
+        if(columnType == null){
+            throw new IllegalArgumentException("columnType은 null일 수 없습니다.");
+        }
+        columnList.add(new Column(columnType, dataFormat));
+        return this;
+    }
+
+    /**
+     * Column 수를 반환한다.
+     * @return Column 수
+     */
+    public int getColumnCount(){
+        return columnList.size();
+    }
+
+    /**
+     * colIndex에 해당하는 Column을 반환한다.
+     * @param colIndex Column의 번호(0부터 시작).
+     * @return Column, 없으면 null
+     */
+    Column getColumn(final int colIndex){
+        return colIndex < columnList.size() ? columnList.get(colIndex) : null;
+    }
+
+    private Column getLastColumn(){
+        if(columnList.isEmpty()){
+            throw new IllegalStateException("Style을 설정할 Column이 없습니다. addColumn()을 먼저 호출해야 합니다.");
+        }
+        return columnList.get(columnList.size() - 1);
+    }
+
+    private static int toRgb(final int R, final int G, final int B){
+        return (R & 0xFF) << 16 | (G & 0xFF) << 8 | (B & 0xFF);
+    }
+
+    /**
+     * 마지막 Column의 DataFormat을 설정한다.
+     * @param dataFormat 표현형식, 예시) "#,##0"
+     * @return this
+     */
+    public ColumnSchema setDataFormat(final String dataFormat){
+        getLastColumn().dataFormat = dataFormat;
+        return this;
+    }
+
+    /**
+     * 마지막 Column의 Vertical Alignment를 설정한다.
+     * @param verticalAlignment 세로 정렬
+     * @return this
+     */
+    public ColumnSchema setVerticalAlignment(final VerticalAlignment verticalAlignment){
+        getLastColumn().cellStyleKey.setVerticalAlignment(verticalAlignment);
+        return this;
+    }
+
+    /**
+     * 마지막 Column의 Horizontal Alignment를 설정한다.
+     * @param horizontalAlignment 가로 정렬
+     * @return this
+     */
+    public ColumnSchema setHorizontalAlignment(final HorizontalAlignment horizontalAlignment){
+        getLastColumn().cellStyleKey.setHorizontalAlignment(horizontalAlignment);
+        return this;
+    }
+
+    /**
+     * 마지막 Column의 텍스트 줄 바꿈 여부를 설정한다.
+     * @param wrapText 텍스트 줄 바꿈 여부(기본값 true)
+     * @return this
+     */
+    public ColumnSchema setWrapText(final boolean wrapText){
+        getLastColumn().cellStyleKey.setWrapText(wrapText);
+        return this;
+    }
+
+    /**
+     * 마지막 Column의 Cell 색상을 설정한다.
+     * @param R
+     * @param G
+     * @param B
+     * @return this
+     */
+    public ColumnSchema setCellColor(final int R, final int G, final int B){
+        getLastColumn().cellStyleKey.setFill(FillPatternType.SOLID_FOREGROUND, toRgb(R, G, B));
+        return this;
+    }
+
+    /**
+     * 마지막 Column의 Border Style을 설정한다.
+     * @param borderStyle Border의 스타일
+     * @return this
+     */
+    public ColumnSchema setBorderStyle(final BorderStyle borderStyle){
+        getLastColumn().cellStyleKey.setBorderStyle(borderStyle, borderStyle, borderStyle, borderStyle);
+        return this;
+    }
+
+    /**
+     * 마지막 Column의 Border Color를 설정한다.
+     * workbook의 구현체가 XSSFWorkbook(또는 SXSSFWorkbook)이어야 적용된다.
+     * @param R
+     * @param G
+     * @param B
+     * @return this
+     */
+    public ColumnSchema setBorderColor(final int R, final int G, final int B){
+        final int rgb = toRgb(R, G, B);
+        getLastColumn().cellStyleKey.setBorderColor(rgb, rgb, rgb, rgb);
+        return this;
+    }
+
+    /**
+     * 마지막 Column의 Font Points를 설정한다.
+     * @param points 폰트 크기
+     * @return this
+     */
+    public ColumnSchema setFontPoints(final short points){
+        getLastColumn().fontKey.setFontHeightInPoints(points);
+        return this;
+    }
+
+    /**
+     * 마지막 Column의 Font Color를 설정한다.
+     * workbook의 구현체가 XSSFWorkbook(또는 SXSSFWorkbook)이어야 적용된다.
+     * @param R
+     * @param G
+     * @param B
+     * @return this
+     */
+    public ColumnSchema setFontColor(final int R, final int G, final int B){
+        getLastColumn().fontKey.setColor(toRgb(R, G, B));
+        return this;
+    }
+
+    /**
+     * 마지막 Column의 Font Bold 여부를 설정한다.
+     * @param bold
+     * @return this
+     */
+    public ColumnSchema setBold(final boolean bold){
+        getLastColumn().fontKey.setBold(bold);
+        return this;
+    }
+}
@@ -0,0 +1,16 @@
+package excel;
+
+/**
+ **<pre>
+ **SheetController.appendRows()에서 Column 값을 Cell에 어떻게 입력할지 정하는 타입.
+ **값이 null이면 타입과 관계없이 값 없이 CellStyle만 적용된 Cell이 만들어진다.
+ * </pre>
+ */
+public enum ColumnType {
+    AUTO, // 값의 Class에 따라 입력한다.(기본값)
+    TEXT, // String.valueOf(value)로 입력한다.
+    NUMBER, // Number만 허용한다.
+    DATE, // LocalDate, LocalDateTime, Date, Calendar만 허용한다.
+    BOOLEAN // Boolean만 허용한다.
+    ;
+}
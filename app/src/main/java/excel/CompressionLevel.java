@@ -0,0 +1,31 @@
+package excel;
+
+import java.util.zip.Deflater;
+
+/**
+ **<pre>
+ **Workbook(zip)을 출력할 때 각 Entry의 압축 수준.
+ **ExcelController.setCompressionLevel()로 설정한다.
+ * </pre>
+ */
+public enum CompressionLevel {
+    STORED(Deflater.NO_COMPRESSION), // 압축하지 않는다.
+    FAST(Deflater.BEST_SPEED), // 빠르게 압축한다.
+    DEFAULT(Deflater.DEFAULT_COMPRESSION), // zlib 기본 수준으로 압축한다.(기본값)
+    BEST(Deflater.BEST_COMPRESSION) // 가장 작게 압축한다.
+    ;
+
+    private final int value;
+
+    CompressionLevel(int value){
+        this.value = value;
+    }
+
+    /**
+     * java.util.zip.Deflater의 압축 수준을 반환한다.
+     * @return Deflater의 압축 수준
+     */
+    public int getValue(){
+        return this.value;
+    }
+}
@@ -0,0 +1,109 @@
+package excel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ **<pre>
+ **Workbook에 등록된 Picture, OLE Package를 내용으로 찾기 위한 index.
+ **내용의 64bit hash(FarmHash Fingerprint64), 크기, 종류로 후보를 찾고, 등록된 Part의 내용과 비교하여 같은 내용인지 확인한다.
+ **따라서 hash가 충돌하더라도 다른 내용이 같은 index로 등록되지 않는다.
+ **내용(byte[])은 보관하지 않으며, 비교할 때는 Workbook에 이미 기록된 Part를 읽는다.
+ * </pre>
+ */
+final class ContentIndex {
+    private static final HashFunction HASH_FUNCTION = Hashing.farmHashFingerprint64();
+    private static final int COMPARE_BUFFER_SIZE = 64 * 1024;
+
+    private final Map<Long, List<Entry>> entryMap = new HashMap<>(); // key: content hash, value: 같은 hash의 등록 정보
+
+    /**
+     * content의 hash를 계산한다.
+     * @param content
+     * @return FarmHash Fingerprint64
+     */
+    static long hash(final byte[] content){
+        return HASH_FUNCTION.hashBytes(content).asLong();
+    }
+
+    /**
+     **<pre>
+     **hash, size, type이 같고 matcher가 true를 반환하는 등록 정보가 있으면 그 index를,
+     **없으면 register로 등록한 뒤 그 index를 반환한다.
+     * </pre>
+     * @param hash 내용의 FarmHash Fingerprint64
+     * @param size 내용의 크기(byte)
+     * @param type 내용의 종류(Picture Type 등), 내용이 같아도 type이 다르면 다른 것으로 본다.
+     * @param matcher 등록된 index의 내용이 등록할 내용과 같은지 확인하는 함수
+     * @param register Workbook에 등록하고 index를 반환하는 함수
+     * @return index
+     */
+    int getOrRegister(final long hash, final long size, final int type, final IntPredicate matcher, final IntSupplier register){
+        final List<Entry> entryList = entryMap.computeIfAbsent(hash, key -> new ArrayList<>(1));
+        for(Entry entry : entryList){
+            if(entry.size == size && entry.type == type && matcher.test(entry.index)){
+                return entry.index;
+            }
+        }
+        final int index = register.getAsInt();
+        entryList.add(new Entry(size, type, index));
+        return index;
+    }
+
+    /**
+     * other의 등록 정보를 모두 추가한다.(WorkbookTemplate에서 사용)
+     * @param other
+     */
+    void putAll(final ContentIndex other){
+        for(Map.Entry<Long, List<Entry>> entry : other.entryMap.entrySet()){
+            entryMap.computeIfAbsent(entry.getKey(), key -> new ArrayList<>(1)).addAll(entry.getValue());
+        }
+    }
+
+    /**
+     * 두 InputStream의 내용이 같은지 COMPARE_BUFFER_SIZE 단위로 읽으며 비교한다.
+     * 두 InputStream 모두 close한다.
+     * @param inputStream1
+     * @param inputStream2
+     * @return 내용이 같으면 true
+     * @throws IOException
+     */
+    static boolean contentEquals(final InputStream inputStream1, final InputStream inputStream2) throws IOException{
+        try(InputStream stream1 = inputStream1; InputStream stream2 = inputStream2){
+            final byte[] buffer1 = new byte[COMPARE_BUFFER_SIZE];
+            final byte[] buffer2 = new byte[COMPARE_BUFFER_SIZE];
+            while(true){
+                final int length1 = stream1.readNBytes(buffer1, 0, COMPARE_BUFFER_SIZE);
+                final int length2 = stream2.readNBytes(buffer2, 0, COMPARE_BUFFER_SIZE);
+                if(length1 != length2 || Arrays.mismatch(buffer1, 0, length1, buffer2, 0, length2) != -1){
+                    return false;
+                }
+                if(length1 < COMPARE_BUFFER_SIZE){
+                    return true;
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final long size;
+        private final int type;
+        private final int index;
+
+        private Entry(final long size, final int type, final int index){
+            this.size = size;
+            this.type = type;
+            this.index = index;
+        }
+    }
+}
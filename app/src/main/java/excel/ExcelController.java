@@ -1,30 +1,97 @@
 package excel;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
 
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.apache.poi.poifs.filesystem.Ole10Native;
+import org.apache.poi.poifs.filesystem.Ole10NativeException;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.IndexedColorMap;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.usermodel.XSSFPictureData;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 public class ExcelController {
+    private static final int FILE_WRITE_BUFFER_SIZE = 64 * 1024;
+
     private Workbook workbook;
+    private final int rowAccessWindowSize; // streaming(SXSSFWorkbook)이 아니면 0
     private Font defaultFont;
 
     private Map<String, Integer> imageIndexMap = new HashMap<>(); // key: imageKey(사용자 지정), value: imageNumber(Workbook.addPicture())
     private Map<String, Integer> fileIndexMap = new HashMap<>(); // key: fileName(사용자 지정), value: fileNumber(Workbook.addOlePackage())
+    private ContentIndex pictureContentIndex = new ContentIndex(); // 등록된 Picture를 내용으로 찾는다.
+    private ContentIndex fileContentIndex = new ContentIndex(); // 등록된 OLE Package를 내용으로 찾는다.
+    private ImageResampler imageResampler; // null이면 Image를 원본 그대로 저장한다.
+    private Map<ImageResampler.Key, Integer> resampledImageIndexMap = new HashMap<>(); // key: (원본 hash, 축소 크기), value: imageNumber(Workbook.addPicture())
+    private Map<Integer, PendingPicture> pendingPictureMap = new LinkedHashMap<>(); // key: imageNumber, value: 출력할 때 채울 축소된 Image
+    private Map<Payload, Integer> payloadPictureIndexMap = new IdentityHashMap<>(); // key: ImageObject의 Payload, value: imageNumber(Workbook.addPicture()), 같은 Payload는 내용을 다시 읽지 않는다.
+    private Map<Payload, Integer> payloadFileIndexMap = new IdentityHashMap<>(); // key: FileObject의 Payload, value: fileNumber(Workbook.addOlePackage()), 같은 Payload는 내용을 다시 읽지 않는다.
+    private Map<String, Payload> deferredPartMap = new HashMap<>(); // key: zip Entry 이름, value: 출력할 때 기록할 내용
+    private Map<Integer, Payload> deferredFileMap = new HashMap<>(); // key: fileNumber(Workbook.addOlePackage()), value: 출력할 때 OLE Package로 만들 파일 내용
+    private Map<CellStyleKey, CellStyle> cellStyleMap = new HashMap<>(); // key: CellStyleKey(스타일 속성 전체), value: CellStyle(Workbook.createCellStyle())
+    private Map<FontKey, Font> fontMap = new HashMap<>(); // key: FontKey(이름, 높이, Bold, 색상), value: Font(Workbook.createFont())
+    private LongKeyMap<XSSFColor> colorMap = new LongKeyMap<>(); // key: 0xRRGGBB, value: XSSFColor
+    private IndexedColorMap indexedColors;
+    private boolean deferredStyleResolution = false;
+    private boolean deferredRowHeight = false;
+    private Executor rowHeightExecutor; // 지연된 Row Height를 Row 범위별로 나누어 계산할 Executor
+    private Executor sheetFlushExecutor; // finishWorksheet()된 Sheet의 Row를 flush할 Executor
+    private CompressionLevel compressionLevel = CompressionLevel.DEFAULT;
+    private Executor compressionExecutor; // zip Entry를 병렬로 압축할 Executor
     private SheetController worksheetController;
     private List<SheetController> sheetControllerList = new ArrayList<>();
 
     private void destoryFields(){
         workbook = null;
         defaultFont = null;
+        cellStyleMap = null;
+        fontMap = null;
+        colorMap = null;
+        indexedColors = null;
+        pictureContentIndex = null;
+        fileContentIndex = null;
+        resampledImageIndexMap = null;
+        pendingPictureMap = null;
+        payloadPictureIndexMap = null;
+        payloadFileIndexMap = null;
+        deferredPartMap = null;
+        deferredFileMap = null;
     }
 
     /**
@@ -33,13 +100,65 @@ public class ExcelController {
      * @param sheetName 생성될 sheet의 이름
      */
     public ExcelController(){
-        workbook = new XSSFWorkbook();
+        this(new XSSFWorkbook(), 0);
+    }
+
+    /**
+     **<pre>
+     **Streaming 방식의 ExcelController의 생성자.
+     **내부적으로 SXSSFWorkbook과 Sheet를 생성한다.
+     **Sheet마다 최근 rowAccessWindowSize개의 Row만 메모리에 유지되고, 그 이전 Row는 임시 파일로 flush된다.
+     **flush된 Row는 다시 수정할 수 없으며, 수정하려고 하면 IllegalStateException이 발생한다.
+     **CellController도 최근 rowAccessWindowSize개의 Row만 보관한다.(CellRetentionPolicy.KEEP_LAST_ROWS)
+     * </pre>
+     * @param rowAccessWindowSize Sheet마다 메모리에 유지할 Row 수(1 이상)
+     */
+    public ExcelController(final int rowAccessWindowSize){
+        this(createStreamingWorkbook(rowAccessWindowSize), rowAccessWindowSize);
+    }
+
+    private ExcelController(final Workbook workbook, final int rowAccessWindowSize){
+        this.workbook = workbook;
+        this.rowAccessWindowSize = rowAccessWindowSize;
         addSheet();
         selectWorksheet(0);
         defaultFont = workbook.getFontAt(0);
         defaultFont.setFontName(Base.BASE_FONT_NAME);
         defaultFont.setFontHeightInPoints(Base.BASE_FONT_HEIGHT_POINTS);
-        registBaseIconImage();
+        fontMap.put(FontKey.createDefault(), defaultFont);
+    }
+
+    /**
+     **<pre>
+     **workbookTemplate으로부터 ExcelController를 생성한다.(WorkbookTemplate.newExcelController()에서 사용)
+     **template의 Sheet마다 SheetController를 만들고, CellStyle, Font, Image 등록 정보는 template의 것을 그대로 사용한다.
+     **template에 이미 등록된 아이콘 이미지는 다시 등록하지 않는다.
+     * </pre>
+     * @param workbookTemplate
+     * @param rowAccessWindowSize 0이면 XSSFWorkbook, 1 이상이면 Streaming 방식
+     * @throws IOException
+     */
+    ExcelController(final WorkbookTemplate workbookTemplate, final int rowAccessWindowSize) throws IOException{
+        final XSSFWorkbook xssfWorkbook = new XSSFWorkbook(new ByteArrayInputStream(workbookTemplate.getPackageBytes()));
+        this.workbook = rowAccessWindowSize == 0 ? xssfWorkbook : createStreamingWorkbook(xssfWorkbook, rowAccessWindowSize);
+        this.rowAccessWindowSize = rowAccessWindowSize;
+        for(int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++){
+            sheetControllerList.add(new SheetController(this, workbook.getSheetAt(sheetIndex)));
+        }
+        selectWorksheet(0);
+        defaultFont = workbook.getFontAt(0);
+        workbookTemplate.copyRegistries(workbook, cellStyleMap, fontMap, imageIndexMap, fileIndexMap, pictureContentIndex, fileContentIndex);
+    }
+
+    private static SXSSFWorkbook createStreamingWorkbook(final int rowAccessWindowSize){
+        return createStreamingWorkbook(new XSSFWorkbook(), rowAccessWindowSize);
+    }
+
+    private static SXSSFWorkbook createStreamingWorkbook(final XSSFWorkbook xssfWorkbook, final int rowAccessWindowSize){
+        if(rowAccessWindowSize < 1){
+            throw new IllegalArgumentException("rowAccessWindowSize는 1 이상이어야 합니다.");
+        }
+        return new StreamingWorkbook(xssfWorkbook, rowAccessWindowSize);
     }
 
     /**
@@ -50,6 +169,36 @@ public class ExcelController {
         return workbook;
     }
 
+    /**
+     * workbook의 XSSFWorkbook을 반환한다.
+     * Streaming 방식이면 SXSSFWorkbook 내부의 XSSFWorkbook을 반환한다.
+     * @return XSSFWorkbook, XSSF 계열이 아니면 null
+     */
+    protected XSSFWorkbook getXSSFWorkbook(){
+        if(workbook instanceof XSSFWorkbook){
+            return (XSSFWorkbook)workbook;
+        }else if(workbook instanceof SXSSFWorkbook){
+            return ((SXSSFWorkbook)workbook).getXSSFWorkbook();
+        }
+        return null;
+    }
+
+    /**
+     * Streaming(SXSSFWorkbook) 방식인지 반환한다.
+     * @return Streaming 방식이면 true
+     */
+    protected boolean isStreaming(){
+        return workbook instanceof SXSSFWorkbook;
+    }
+
+    /**
+     * Streaming 방식에서 Sheet마다 메모리에 유지되는 Row 수를 반환한다.
+     * @return rowAccessWindowSize, Streaming 방식이 아니면 0
+     */
+    protected int getRowAccessWindowSize(){
+        return rowAccessWindowSize;
+    }
+
     /**
      * imageIndexMap을 반환한다.
      * key: imageKey(사용자 지정), value: imageNumber(Workbook.addPicture())
@@ -68,6 +217,530 @@ public class ExcelController {
         return fileIndexMap;
     }
 
+    /**
+     * 등록된 Picture를 내용으로 찾는 index를 반환한다.
+     * @return pictureContentIndex
+     */
+    protected ContentIndex getPictureContentIndex(){
+        return pictureContentIndex;
+    }
+
+    /**
+     * 등록된 OLE Package를 내용으로 찾는 index를 반환한다.
+     * @return fileContentIndex
+     */
+    protected ContentIndex getFileContentIndex(){
+        return fileContentIndex;
+    }
+
+    /**
+     **<pre>
+     **imageByteArray와 내용이 같은 Picture가 이미 등록되어 있으면 그 imageIndex를, 없으면 새로 등록하여 imageIndex를 반환한다.
+     **imageKey가 달라도 내용과 pictureType이 같으면 하나의 Picture를 공유한다.
+     * </pre>
+     * @param imageByteArray
+     * @param pictureType ImageFormat.getValue()
+     * @return imageIndex(Workbook.addPicture())
+     */
+    protected int addPicture(final byte[] imageByteArray, final int pictureType){
+        return addPicture(imageByteArray, ContentIndex.hash(imageByteArray), pictureType);
+    }
+
+    /**
+     * addPicture(byte[], int)와 같으며, 미리 계산된 hash를 사용한다.
+     * @param imageByteArray
+     * @param hash imageByteArray의 FarmHash Fingerprint64
+     * @param pictureType ImageFormat.getValue()
+     * @return imageIndex(Workbook.addPicture())
+     */
+    private int addPicture(final byte[] imageByteArray, final long hash, final int pictureType){
+        return pictureContentIndex.getOrRegister(hash, imageByteArray.length, pictureType,
+            imageIndex -> contentEquals(() -> openPicture(imageIndex), () -> new ByteArrayInputStream(imageByteArray)),
+            () -> workbook.addPicture(imageByteArray, pictureType));
+    }
+
+    /**
+     * 등록된 Picture의 내용을 읽는 InputStream을 반환한다.
+     * @param imageIndex imageIndex(Workbook.addPicture())
+     * @return InputStream
+     * @throws IOException
+     */
+    private InputStream openPicture(final int imageIndex) throws IOException{
+        final PackagePart packagePart = getXSSFWorkbook().getAllPictures().get(imageIndex).getPackagePart();
+        final Payload payload = deferredPartMap.get(packagePart.getPartName().getName().substring(1));
+        return payload != null ? payload.openStream() : packagePart.getInputStream();
+    }
+
+    /**
+     * 등록된 OLE Package에 들어있는 파일 내용을 읽는 InputStream을 반환한다.
+     * OLE Package(oleObject.bin)를 열어 Ole10Native의 내용을 꺼낸다.
+     * @param fileIndex fileIndex(Workbook.addOlePackage())
+     * @return InputStream
+     * @throws IOException
+     */
+    private InputStream openOlePackageContent(final int fileIndex) throws IOException{
+        final Payload payload = deferredFileMap.get(fileIndex);
+        if(payload != null){
+            return payload.openStream();
+        }
+        try {
+            final PackagePart packagePart = getXSSFWorkbook().getPackage().getPart(PackagingURIHelper.createPartName(XSSFRelation.OLEEMBEDDINGS.getFileName(fileIndex)));
+            try(InputStream inputStream = packagePart.getInputStream(); POIFSFileSystem poifs = new POIFSFileSystem(inputStream)){
+                return new ByteArrayInputStream(Ole10Native.createFromEmbeddedOleObject(poifs).getDataBuffer());
+            }
+        } catch (InvalidFormatException | Ole10NativeException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * 두 내용이 같은지 ContentIndex.contentEquals()로 비교한다.(ContentIndex의 matcher에서 사용)
+     * IOException은 UncheckedIOException으로 전달한다.
+     * @param registered 등록된 내용을 여는 함수
+     * @param content 등록할 내용을 여는 함수
+     * @return 내용이 같으면 true
+     */
+    private static boolean contentEquals(final ContentOpener registered, final ContentOpener content){
+        try {
+            return ContentIndex.contentEquals(registered.open(), content.open());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 자리만 등록된 Picture에 출력할 때 채울 내용.
+     */
+    private static final class PendingPicture {
+        private final CompletableFuture<byte[]> resampled; // 축소된 Image, 원본을 사용하면 null로 완료된다.
+        private final ImageObject source; // 원본 Image
+
+        private PendingPicture(final CompletableFuture<byte[]> resampled, final ImageObject source){
+            this.resampled = resampled;
+            this.source = source;
+        }
+    }
+
+    /**
+     * 내용을 처음부터 읽는 InputStream을 여는 함수.
+     */
+    @FunctionalInterface
+    private interface ContentOpener {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     **<pre>
+     **imageObject를 displayWidth x displayHeight(Pixel)로 표시할 Picture를 등록하고 imageIndex를 반환한다.
+     **ImageResampler가 설정되어 있고 원본이 표시 크기보다 크면, 자리만 먼저 등록하고 축소는 ImageResampler의 executor에서 진행한다.
+     **축소된 Image는 Workbook을 출력할 때 채워지며, 같은 Image를 같은 크기로 표시하면 하나의 Picture를 공유한다.
+     **그 외에는 addPicture(byte[], int)와 같으며, imageObject에 계산된 hash가 있으면 그것을 사용한다.
+     **Path, ByteBuffer, InputStream으로 생성된 imageObject는 자리만 등록하고, 내용은 Workbook을 출력할 때 기록한다.
+     * </pre>
+     * @param imageObject
+     * @param displayWidth 표시 Width(Pixel)
+     * @param displayHeight 표시 Height(Pixel)
+     * @return imageIndex(Workbook.addPicture())
+     */
+    protected int addPicture(final ImageObject imageObject, final int displayWidth, final int displayHeight){
+        final int pictureType = imageObject.getImageFormat().getValue();
+        if(imageResampler == null || !ImageResampler.isResamplable(imageObject) || displayWidth < 1 || displayHeight < 1
+            || (imageResampler.getTargetPixels(displayWidth) >= imageObject.getWidth() && imageResampler.getTargetPixels(displayHeight) >= imageObject.getHeight())){
+            final Payload payload = imageObject.getPayload();
+            if(payload != null){
+                return addDeferredPicture(payload, imageObject.getContentHash(), pictureType);
+            }
+            return addPicture(imageObject.getImageByteArray(), imageObject.getContentHash(), pictureType);
+        }
+        final int targetWidth = imageResampler.getTargetPixels(displayWidth);
+        final int targetHeight = imageResampler.getTargetPixels(displayHeight);
+        final ImageResampler.Key key = imageResampler.createKey(imageObject, targetWidth, targetHeight);
+        Integer imageIndex = resampledImageIndexMap.get(key);
+        if(imageIndex == null){
+            final CompletableFuture<byte[]> resampled = imageResampler.resample(key, imageObject);
+            imageIndex = workbook.addPicture(new byte[0], pictureType);
+            pendingPictureMap.put(imageIndex, new PendingPicture(resampled, imageObject));
+            resampledImageIndexMap.put(key, imageIndex);
+        }
+        return imageIndex;
+    }
+
+    /**
+     **<pre>
+     **payload와 내용이 같은 Picture가 이미 등록되어 있으면 그 imageIndex를 반환한다.
+     **없으면 빈 Picture를 등록하고, 출력할 때 payload의 내용을 기록하도록 한다.
+     **내용은 hash, 크기, pictureType으로 찾고 stream으로 비교하므로, 다른 파일이나 ByteBuffer라도 내용이 같으면 하나의 Picture를 공유한다.
+     * </pre>
+     * @param payload Picture의 내용
+     * @param hash payload의 FarmHash Fingerprint64
+     * @param pictureType ImageFormat.getValue()
+     * @return imageIndex(Workbook.addPicture())
+     */
+    private int addDeferredPicture(final Payload payload, final long hash, final int pictureType){
+        Integer imageIndex = payloadPictureIndexMap.get(payload);
+        if(imageIndex == null){
+            imageIndex = pictureContentIndex.getOrRegister(hash, payload.size(), pictureType,
+                index -> contentEquals(() -> openPicture(index), payload::openStream),
+                () -> {
+                    final int index = workbook.addPicture(new byte[0], pictureType);
+                    deferPicture(index, payload);
+                    return index;
+                });
+            payloadPictureIndexMap.put(payload, imageIndex);
+        }
+        return imageIndex;
+    }
+
+    /**
+     * 등록된 Picture의 내용을 출력할 때 payload로 기록하도록 한다.
+     * @param imageIndex imageIndex(Workbook.addPicture())
+     * @param payload Picture의 내용
+     */
+    private void deferPicture(final int imageIndex, final Payload payload){
+        final String partName = getXSSFWorkbook().getAllPictures().get(imageIndex).getPackagePart().getPartName().getName();
+        deferredPartMap.put(partName.substring(1), payload);
+    }
+
+    /**
+     **<pre>
+     **fileObject를 OLE Package로 등록하고 fileIndex를 반환한다.
+     **Path, ByteBuffer, InputStream으로 생성된 fileObject는 빈 OLE Package로 자리만 등록하고,
+     **Workbook을 출력할 때 하나씩 OLE Package로 만들어 기록하므로 파일 내용을 Heap에 보관하지 않는다.
+     **내용은 hash와 크기로 찾고 stream으로 비교하므로, 다른 파일이나 ByteBuffer라도 내용이 같으면 하나의 OLE Package를 공유한다.
+     **그 외에는 addOlePackage(byte[], String)와 같다.
+     * </pre>
+     * @param fileObject
+     * @return fileIndex(Workbook.addOlePackage())
+     * @throws IOException
+     */
+    protected int addOlePackage(final FileObject fileObject) throws IOException{
+        final Payload payload = fileObject.getPayload();
+        if(payload == null){
+            return addOlePackage(fileObject.getFileByteArray(), fileObject.getFileName());
+        }
+        Integer fileIndex = payloadFileIndexMap.get(payload);
+        if(fileIndex == null){
+            final String fileName = fileObject.getFileName();
+            try {
+                fileIndex = fileContentIndex.getOrRegister(payload.hash(), payload.size(), 0,
+                    index -> contentEquals(() -> openOlePackageContent(index), payload::openStream),
+                    () -> {
+                        try {
+                            final int index = workbook.addOlePackage(new byte[0], fileName, fileName, fileName);
+                            deferredPartMap.put(XSSFRelation.OLEEMBEDDINGS.getFileName(index).substring(1), Payload.ofOlePackage(payload, fileName));
+                            deferredFileMap.put(index, payload);
+                            return index;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            payloadFileIndexMap.put(payload, fileIndex);
+        }
+        return fileIndex;
+    }
+
+    /**
+     **<pre>
+     **fileByteArray와 내용이 같은 OLE Package가 이미 등록되어 있으면 그 fileIndex를, 없으면 새로 등록하여 fileIndex를 반환한다.
+     **fileName이 달라도 내용이 같으면 하나의 OLE Package를 공유하며, 이때 Package의 파일 이름은 처음 등록된 fileName이다.
+     * </pre>
+     * @param fileByteArray
+     * @param fileName
+     * @return fileIndex(Workbook.addOlePackage())
+     * @throws IOException
+     */
+    protected int addOlePackage(final byte[] fileByteArray, final String fileName) throws IOException{
+        try {
+            return fileContentIndex.getOrRegister(ContentIndex.hash(fileByteArray), fileByteArray.length, 0,
+                fileIndex -> contentEquals(() -> openOlePackageContent(fileIndex), () -> new ByteArrayInputStream(fileByteArray)),
+                () -> {
+                    try {
+                        return workbook.addOlePackage(fileByteArray, fileName, fileName, fileName);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * cellStyleMap을 반환한다.
+     * key: CellStyleKey(스타일 속성 전체), value: CellStyle(Workbook.createCellStyle())
+     * @return cellStyleMap
+     */
+    protected Map<CellStyleKey, CellStyle> getCellStyleMap(){
+        return cellStyleMap;
+    }
+
+    /**
+     * fontMap을 반환한다.
+     * key: FontKey(이름, 높이, Bold, 색상), value: Font(Workbook.createFont())
+     * @return fontMap
+     */
+    protected Map<FontKey, Font> getFontMap(){
+        return fontMap;
+    }
+
+    /**
+     * Style 지연 적용 여부를 반환한다.
+     * @return Style 지연 적용 여부
+     */
+    protected boolean isDeferredStyleResolution(){
+        return deferredStyleResolution;
+    }
+
+    /**
+     **<pre>
+     **Style 지연 적용 여부를 설정한다.
+     **true이면 CellController의 Style setter는 속성만 기록하고, CellStyle은 finishWorkcell() 또는 Workbook을 출력할 때 한 번만 적용된다.
+     **같은 Cell의 Style을 여러 번 바꾸는 경우, 중간 단계의 CellStyle과 Font가 Workbook에 만들어지지 않는다.
+     **false이면(기본값) setter를 호출할 때마다 CellStyle이 적용된다.
+     * </pre>
+     * @param deferredStyleResolution Style 지연 적용 여부
+     * @return this
+     */
+    public ExcelController setDeferredStyleResolution(final boolean deferredStyleResolution){
+        this.deferredStyleResolution = deferredStyleResolution;
+        return this;
+    }
+
+    /**
+     * Row Height를 지연하여 맞추는지 반환한다.
+     * @return Row Height 지연 여부
+     */
+    protected boolean isDeferredRowHeight(){
+        return deferredRowHeight;
+    }
+
+    /**
+     **<pre>
+     **addText(), addImage(), addFile()에서 Row Height를 지연하여 맞추도록 설정한다.
+     **true이면 호출할 때마다 Row Height를 바꾸지 않고, finishWorksheet() 또는 Workbook을 출력할 때
+     **Sheet마다 한 번, Row의 모든 Cell의 Text와 Image를 보고 Row Height를 맞춘다.
+     **Streaming 방식이면 Row가 임시 파일로 flush되기 직전에 그 Row의 Height를 맞춘다.
+     **Row Height를 맞추기 전에 CellRetentionPolicy 등으로 해제된 CellController는 보관하지 않고 Row별로 필요한 높이만 기록한다.
+     **false이면(기본값) 호출할 때마다 Row Height가 적용된다.
+     * </pre>
+     * @param deferredRowHeight Row Height 지연 여부
+     * @return this
+     */
+    public ExcelController setDeferredRowHeight(final boolean deferredRowHeight){
+        this.deferredRowHeight = deferredRowHeight;
+        return this;
+    }
+
+    /**
+     * 지연된 Row Height를 계산할 Executor를 반환한다.
+     * @return rowHeightExecutor, 설정되지 않았으면 null
+     */
+    protected Executor getRowHeightExecutor(){
+        return rowHeightExecutor;
+    }
+
+    /**
+     **<pre>
+     **지연된 Row Height(setDeferredRowHeight(true))를 계산할 Executor를 설정한다.
+     **Row Height를 맞출 Cell이 많으면 Row 범위별로 나누어 rowHeightExecutor에서 병렬로 계산하고, Row에는 호출한 Thread에서 적용한다.
+     **null이면(기본값) 호출한 Thread에서 계산한다.
+     * </pre>
+     * @param rowHeightExecutor Row Height를 계산할 Executor
+     * @return this
+     */
+    public ExcelController setRowHeightExecutor(final Executor rowHeightExecutor){
+        this.rowHeightExecutor = rowHeightExecutor;
+        return this;
+    }
+
+    /**
+     * finishWorksheet()된 Sheet의 Row를 flush할 Executor를 반환한다.
+     * @return sheetFlushExecutor, 설정되지 않았으면 null
+     */
+    protected Executor getSheetFlushExecutor(){
+        return sheetFlushExecutor;
+    }
+
+    /**
+     **<pre>
+     **finishWorksheet()된 Sheet의 Row를 flush할 Executor를 설정한다.
+     **Streaming 방식에서만 사용되며, 설정하면 finishWorksheet()를 호출할 때 그 Sheet의 남은 Row가 sheetFlushExecutor에서 임시 파일로 flush된다.
+     **따라서 다음 Sheet를 작업하는 동안 앞선 Sheet의 XML 출력이 함께 진행된다.
+     **flush가 진행되는 동안 그 Sheet의 Row에 접근하면 flush가 끝날 때까지 기다린다.
+     **null이면(기본값) Workbook을 출력할 때 모든 Sheet가 한꺼번에 flush된다.
+     * </pre>
+     * @param sheetFlushExecutor Sheet의 Row를 flush할 Executor
+     * @return this
+     */
+    public ExcelController setSheetFlushExecutor(final Executor sheetFlushExecutor){
+        this.sheetFlushExecutor = sheetFlushExecutor;
+        return this;
+    }
+
+    /**
+     * Workbook(zip)을 출력할 때 사용할 압축 수준을 설정한다.
+     * DEFAULT가 아니면 Workbook을 압축하지 않은 임시 파일로 출력한 뒤 compressionLevel로 다시 압축한다.
+     * @param compressionLevel 압축 수준(기본값 DEFAULT)
+     * @return this
+     */
+    public ExcelController setCompressionLevel(final CompressionLevel compressionLevel){
+        this.compressionLevel = compressionLevel;
+        return this;
+    }
+
+    /**
+     **<pre>
+     **Workbook(zip)을 출력할 때 Entry를 compressionExecutor에서 병렬로 압축하도록 설정한다.
+     **Workbook을 압축하지 않은 임시 파일로 출력한 뒤, 각 Entry를 256KB block 단위로 나누어 병렬로 압축하고 원래 순서대로 출력한다.
+     **큰 Sheet XML 하나도 여러 Thread에서 압축되며, 결과는 일반 zip과 같다.
+     **null이면(기본값) POI가 출력하는 Thread에서 압축한다.
+     * </pre>
+     * @param compressionExecutor 압축에 사용할 Executor
+     * @return this
+     */
+    public ExcelController setCompressionExecutor(final Executor compressionExecutor){
+        this.compressionExecutor = compressionExecutor;
+        return this;
+    }
+
+    /**
+     **<pre>
+     **Cell에 넣는 Image(JPEG, PNG)를 표시되는 크기로 축소하여 저장하도록 설정한다.
+     **설정한 뒤에 새로 등록되는 Image부터 적용되며, null이면(기본값) 원본 Image를 그대로 저장한다.
+     * </pre>
+     * @param imageResampler Image를 축소할 ImageResampler
+     * @return this
+     */
+    public ExcelController setImageResampler(final ImageResampler imageResampler){
+        this.imageResampler = imageResampler;
+        return this;
+    }
+
+    /**
+     * Image를 축소할 ImageResampler를 반환한다.
+     * @return imageResampler, 설정되지 않았으면 null
+     */
+    protected ImageResampler getImageResampler(){
+        return imageResampler;
+    }
+
+    /**
+     * cellStyleKey에 해당하는 CellStyle을 반환한다.
+     * 같은 속성의 CellStyle은 Workbook 안에서 하나만 생성되어 공유되므로, 반환된 CellStyle을 직접 수정하면 안 된다.
+     * cellStyleKey는 조회에만 쓰이며, 새로 등록할 때는 복사본이 저장되므로 호출한 쪽에서 계속 수정해도 된다.
+     * @param cellStyleKey CellStyle의 속성 전체
+     * @return cellStyleKey에 해당하는 CellStyle
+     */
+    protected CellStyle getCellStyle(final CellStyleKey cellStyleKey){
+        CellStyle cellStyle = cellStyleMap.get(cellStyleKey);
+        if(cellStyle == null){
+            cellStyle = createCellStyle(cellStyleKey);
+            cellStyleMap.put(cellStyleKey.copy(), cellStyle);
+        }
+        return cellStyle;
+    }
+
+    /**
+     * cellStyleKey의 속성으로 새 CellStyle을 생성한다.
+     * 색상은 workbook 구현체가 XSSFWorkbook(또는 SXSSFWorkbook)이어야 적용된다.
+     * @param cellStyleKey CellStyle의 속성 전체
+     * @return 새로 생성된 CellStyle
+     */
+    private CellStyle createCellStyle(final CellStyleKey cellStyleKey){
+        CellStyle cellStyle = workbook.createCellStyle();
+        cellStyle.setAlignment(cellStyleKey.getHorizontalAlignment());
+        cellStyle.setVerticalAlignment(cellStyleKey.getVerticalAlignment());
+        cellStyle.setWrapText(cellStyleKey.isWrapText());
+        cellStyle.setFillPattern(cellStyleKey.getFillPattern());
+        cellStyle.setBorderTop(cellStyleKey.getTopBorderStyle());
+        cellStyle.setBorderBottom(cellStyleKey.getBottomBorderStyle());
+        cellStyle.setBorderLeft(cellStyleKey.getLeftBorderStyle());
+        cellStyle.setBorderRight(cellStyleKey.getRightBorderStyle());
+        cellStyle.setFont(workbook.getFontAt(cellStyleKey.getFontIndex()));
+
+        if(cellStyle instanceof XSSFCellStyle){
+            XSSFCellStyle xssfCellStyle = (XSSFCellStyle)cellStyle;
+            xssfCellStyle.setDataFormat(cellStyleKey.getDataFormat());
+            if(cellStyleKey.getFillColor() != CellStyleKey.NO_COLOR){
+                xssfCellStyle.setFillForegroundColor(getColor(cellStyleKey.getFillColor()));
+            }
+            if(cellStyleKey.getTopBorderColor() != CellStyleKey.NO_COLOR){
+                xssfCellStyle.setTopBorderColor(getColor(cellStyleKey.getTopBorderColor()));
+            }
+            if(cellStyleKey.getBottomBorderColor() != CellStyleKey.NO_COLOR){
+                xssfCellStyle.setBottomBorderColor(getColor(cellStyleKey.getBottomBorderColor()));
+            }
+            if(cellStyleKey.getLeftBorderColor() != CellStyleKey.NO_COLOR){
+                xssfCellStyle.setLeftBorderColor(getColor(cellStyleKey.getLeftBorderColor()));
+            }
+            if(cellStyleKey.getRightBorderColor() != CellStyleKey.NO_COLOR){
+                xssfCellStyle.setRightBorderColor(getColor(cellStyleKey.getRightBorderColor()));
+            }
+        }else{
+            cellStyle.setDataFormat((short)cellStyleKey.getDataFormat());
+        }
+        return cellStyle;
+    }
+
+    /**
+     * fontKey에 해당하는 Font를 반환한다.
+     * 같은 속성의 Font는 Workbook 안에서 하나만 생성되어 공유되므로, 반환된 Font를 직접 수정하면 안 된다.
+     * fontKey는 조회에만 쓰이며, 새로 등록할 때는 복사본이 저장된다.
+     * @param fontKey Font의 속성(이름, 높이, Bold, 색상)
+     * @return fontKey에 해당하는 Font
+     */
+    protected Font getFont(final FontKey fontKey){
+        Font font = fontMap.get(fontKey);
+        if(font == null){
+            font = workbook.createFont();
+            font.setFontName(fontKey.getFontName());
+            font.setFontHeight(fontKey.getFontHeight());
+            font.setBold(fontKey.isBold());
+            if(fontKey.getColor() != CellStyleKey.NO_COLOR && font instanceof XSSFFont){
+                ((XSSFFont)font).setColor(getColor(fontKey.getColor()));
+            }
+            fontMap.put(fontKey.copy(), font);
+        }
+        return font;
+    }
+
+    /**
+     * 표현형식에 해당하는 DataFormat index를 반환한다.
+     * Builtin 형식이 아니면 Workbook에 새로 등록된다.
+     * @param dataFormat 표현형식, 예시) "#,##0"
+     * @return DataFormat index
+     */
+    protected int getDataFormat(final String dataFormat){
+        return workbook.createDataFormat().getFormat(dataFormat);
+    }
+
+    /**
+     * 0xRRGGBB에 해당하는 XSSFColor를 반환한다.
+     * 한 번 생성된 XSSFColor는 colorMap에 보관되어 재사용된다.
+     * POI의 setter들은 XSSFColor의 값을 복사해 가므로 공유해도 안전하다.
+     * workbook 구현체가 XSSFWorkbook(또는 SXSSFWorkbook)이 아닐경우 null을 반환한다.
+     * @param rgb 0xRRGGBB
+     * @return rgb에 해당하는 XSSFColor
+     */
+    protected XSSFColor getColor(final int rgb){
+        final XSSFWorkbook xssfWorkbook = getXSSFWorkbook();
+        if(xssfWorkbook == null){
+            return null;
+        }
+        XSSFColor color = colorMap.get(rgb);
+        if(color == null){
+            if(indexedColors == null){
+                indexedColors = xssfWorkbook.getStylesSource().getIndexedColors();
+            }
+            color = new XSSFColor(new byte[]{(byte)(rgb >>> 16), (byte)(rgb >>> 8), (byte)rgb}, indexedColors);
+            colorMap.put(rgb, color);
+        }
+        return color;
+    }
+
     /**
      * 작업한 Workbook을 ByteArrayOutputStream으로 반환한다.
      * @return 작업한 Workbook을 ByteArrayOutputStream으로 반환한다.
@@ -75,17 +748,228 @@ public class ExcelController {
      */
     public ByteArrayOutputStream getByteArrayOutputStream() throws IOException{
         ByteArrayOutputStream result = new ByteArrayOutputStream();
-        workbook.write(result);
+        writeTo(result);
         return result;
     }
 
     /**
+     * 작업한 Workbook을 outputStream에 바로 출력한다.
+     * 중간에 ByteArrayOutputStream을 거치지 않으므로 Workbook 전체 크기의 byte[]가 만들어지지 않는다.
+     * outputStream은 close하지 않는다.
+     * @param outputStream 출력 대상
+     * @return this
+     * @throws IOException
+     */
+    public ExcelController writeTo(final OutputStream outputStream) throws IOException{
+        prepareWrite();
+        writeWorkbook(outputStream);
+        return this;
+    }
+
+    /**
+     * 작업한 Workbook을 압축하지 않은 zip으로 반환한다.(WorkbookTemplate에서 사용)
+     * 압축을 풀지 않고 읽을 수 있으므로 다시 열 때 더 빠르다.
+     * @return 압축하지 않은 Workbook
+     * @throws IOException
+     */
+    byte[] toUncompressedBytes() throws IOException{
+        final CompressionLevel savedCompressionLevel = compressionLevel;
+        final Executor savedCompressionExecutor = compressionExecutor;
+        compressionLevel = CompressionLevel.STORED;
+        compressionExecutor = null;
+        try{
+            return getByteArrayOutputStream().toByteArray();
+        }finally{
+            compressionLevel = savedCompressionLevel;
+            compressionExecutor = savedCompressionExecutor;
+        }
+    }
+
+    /**
+     * 압축 설정에 따라 workbook을 outputStream으로 출력한다.
+     * 출력할 때 기록할 내용(Path 등으로 생성된 Image, File)이 있으면 압축하지 않은 임시 파일을 거쳐 그 내용으로 바꾸어 출력한다.
+     * @param outputStream 출력 대상
+     * @throws IOException
+     */
+    private void writeWorkbook(final OutputStream outputStream) throws IOException{
+        if(compressionExecutor == null && compressionLevel == CompressionLevel.DEFAULT && deferredPartMap.isEmpty()){
+            workbook.write(outputStream);
+            return;
+        }
+        final Path uncompressedFile = Files.createTempFile("excel-controller", ".zip");
+        try{
+            writeUncompressed(uncompressedFile);
+            try(ZipFile zipFile = new ZipFile(uncompressedFile)){
+                ParallelZipWriter.write(zipFile, outputStream, compressionLevel, compressionExecutor != null ? compressionExecutor : Runnable::run, deferredPartMap);
+            }
+        }finally{
+            Files.deleteIfExists(uncompressedFile);
+        }
+    }
+
+    /**
+     * workbook을 압축하지 않은 zip으로 path에 출력한다.
+     * @param path 출력할 파일 경로
+     * @throws IOException
+     */
+    private void writeUncompressed(final Path path) throws IOException{
+        if(workbook instanceof StreamingWorkbook){
+            final StreamingWorkbook streamingWorkbook = (StreamingWorkbook)workbook;
+            streamingWorkbook.setArchiveCompressionLevel(Deflater.NO_COMPRESSION);
+            try(OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(path), FILE_WRITE_BUFFER_SIZE)){
+                streamingWorkbook.write(outputStream);
+            }finally{
+                streamingWorkbook.setArchiveCompressionLevel(Deflater.DEFAULT_COMPRESSION);
+            }
+        }else{
+            // ZipPackage는 넘겨받은 ZipArchiveOutputStream을 그대로 사용한다.
+            try(ZipArchiveOutputStream zipArchiveOutputStream = new ZipArchiveOutputStream(path)){
+                zipArchiveOutputStream.setLevel(Deflater.NO_COMPRESSION);
+                workbook.write(zipArchiveOutputStream);
+            }
+        }
+    }
+
+    /**
+     * 작업한 Workbook을 path 파일로 바로 출력한다.
+     * 파일이 이미 있으면 덮어쓴다.
+     * @param path 출력할 파일 경로
+     * @return this
+     * @throws IOException
+     */
+    public ExcelController writeTo(final Path path) throws IOException{
+        try(
+            FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            OutputStream outputStream = new BufferedOutputStream(Channels.newOutputStream(fileChannel), FILE_WRITE_BUFFER_SIZE)
+        ){
+            writeTo(outputStream);
+        }
+        return this;
+    }
+
+    /**
+     * 작업한 Workbook을 outputStream에 바로 출력하고,
      * Workbook을 close한다.
+     * outputStream은 close하지 않는다.
+     * @param outputStream 출력 대상
+     * @throws IOException
+     */
+    public void writeToAndClose(final OutputStream outputStream) throws IOException{
+        try{
+            writeTo(outputStream);
+        }finally{
+            close();
+        }
+    }
+
+    /**
+     * 작업한 Workbook을 path 파일로 바로 출력하고,
+     * Workbook을 close한다.
+     * @param path 출력할 파일 경로
+     * @throws IOException
+     */
+    public void writeToAndClose(final Path path) throws IOException{
+        try{
+            writeTo(path);
+        }finally{
+            close();
+        }
+    }
+
+    /**
+     **<pre>
+     **작업한 Workbook을 executor에서 outputStream으로 출력한다.
+     **finishWorksheet()에서 시작된 Sheet flush 작업, addSheetAsync()의 버퍼, Image 축소가 모두 끝난 뒤에
+     **executor에서 버퍼 입력과 아직 적용되지 않은 Cell 작업을 적용하고 출력을 시작한다.
+     **반환된 CompletableFuture가 완료되기 전에는 Workbook을 수정하거나 close하면 안 된다.
+     **outputStream은 close하지 않는다.
+     * </pre>
+     * @param outputStream 출력 대상
+     * @param executor 출력을 실행할 Executor
+     * @return 출력이 끝나면 완료되는 CompletableFuture, IOException은 UncheckedIOException으로 전달된다.
+     */
+    public CompletableFuture<Void> writeAsync(final OutputStream outputStream, final Executor executor){
+        final List<CompletableFuture<?>> waitList = new ArrayList<>();
+        for(PendingPicture pendingPicture : pendingPictureMap.values()){
+            waitList.add(pendingPicture.resampled);
+        }
+        for(SheetController sheetController : sheetControllerList){
+            if(sheetController.getSheetBufferFuture() != null){
+                waitList.add(sheetController.getSheetBufferFuture());
+            }
+            if(sheetController.getBackgroundFlush() != null){
+                waitList.add(sheetController.getBackgroundFlush());
+            }
+        }
+        return CompletableFuture.allOf(waitList.toArray(new CompletableFuture<?>[0])).thenRunAsync(() -> {
+            try {
+                prepareWrite();
+                writeWorkbook(outputStream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Workbook을 출력하기 전에 addSheetAsync()의 버퍼와 아직 적용되지 않은 Cell 작업(지연된 Style, Row Height 등)을 Sheet 순서대로 모두 적용하고,
+     * 축소가 끝난 Image를 등록된 자리에 채운다.
+     */
+    private void prepareWrite() throws IOException{
+        for(SheetController sheetController : sheetControllerList){
+            sheetController.mergeSheetBuffer();
+            sheetController.fitRowHeights();
+            sheetController.flushPendingCells();
+        }
+        fillPendingPictures();
+    }
+
+    /**
+     * addPicture(ImageObject, int, int)에서 자리만 등록된 Picture에 축소된 Image를 채운다.
+     * 축소하지 못했거나 축소한 결과가 원본보다 작지 않으면 원본 Image를 채운다.
+     * Path, ByteBuffer, InputStream으로 생성된 원본은 Heap에 읽지 않고 addDeferredPicture()처럼 출력할 때 기록한다.
+     * @throws IOException
+     */
+    private void fillPendingPictures() throws IOException{
+        if(pendingPictureMap.isEmpty()){
+            return;
+        }
+        final List<XSSFPictureData> pictureDataList = getXSSFWorkbook().getAllPictures();
+        for(Map.Entry<Integer, PendingPicture> entry : pendingPictureMap.entrySet()){
+            final PendingPicture pendingPicture = entry.getValue();
+            byte[] imageByteArray = pendingPicture.resampled.join();
+            if(imageByteArray == null){
+                final Payload payload = pendingPicture.source.getPayload();
+                if(payload != null){
+                    deferPicture(entry.getKey(), payload);
+                    continue;
+                }
+                imageByteArray = pendingPicture.source.getImageByteArray();
+            }
+            try(OutputStream outputStream = pictureDataList.get(entry.getKey()).getPackagePart().getOutputStream()){
+                outputStream.write(imageByteArray);
+            }
+        }
+        pendingPictureMap.clear();
+    }
+
+    /**
+     * Workbook을 close한다.
+     * Streaming 방식이면 flush에 사용된 임시 파일도 삭제한다.
      * @throws IOException
      */
     public void close() throws IOException{
-        workbook.close();
-        destoryFields();
+        try{
+            for(SheetController sheetController : sheetControllerList){
+                sheetController.awaitBackgroundFlush();
+            }
+        }finally{
+            if(workbook instanceof SXSSFWorkbook){
+                ((SXSSFWorkbook)workbook).dispose();
+            }
+            workbook.close();
+            destoryFields();
+        }
     }
 
     /**
@@ -152,9 +1036,34 @@ public class ExcelController {
         return this;
     }
 
+    /**
+     **<pre>
+     **Sheet를 추가하고, Sheet의 내용은 executor에서 sheetBuilder가 SheetBuffer에 채운다.
+     **sheetBuilder는 Workbook에 접근하지 않으므로 여러 Sheet를 동시에 준비할 수 있다.
+     **SheetBuffer의 내용은 그 Sheet를 selectWorksheet()로 선택하거나 Workbook을 출력할 때,
+     **버퍼가 다 채워지기를 기다린 뒤 Sheet 순서대로 Workbook에 입력된다.
+     **따라서 CellStyle, Font, Image 등록은 항상 Workbook을 작업하는 하나의 Thread에서만 이루어진다.
+     **Sheet의 순서는 addSheet(), addSheetAsync()를 호출한 순서와 같다.
+     * </pre>
+     * @param sheetBuilder SheetBuffer를 채우는 작업
+     * @param executor sheetBuilder를 실행할 Executor
+     * @return this
+     */
+    public ExcelController addSheetAsync(final Consumer<SheetBuffer> sheetBuilder, final Executor executor){
+        addSheet();
+        final SheetController sheetController = sheetControllerList.get(sheetControllerList.size() - 1);
+        sheetController.setSheetBufferFuture(CompletableFuture.supplyAsync(() -> {
+            final SheetBuffer sheetBuffer = new SheetBuffer();
+            sheetBuilder.accept(sheetBuffer);
+            return sheetBuffer;
+        }, executor));
+        return this;
+    }
+
     /**
      * index번호로 작업중인 Sheet를 설정한다.
      * sheetIndex에 해당하는 Sheet가 존재하지 않을 경우, IlleaglArgumentException 예외를 발생한다.
+     * addSheetAsync()로 추가된 Sheet이면 버퍼가 다 채워지기를 기다린 뒤 Sheet에 입력한다.
      * @param sheetIndex Sheet 번호(0부터 시작)
      * @return SheetController
      */
@@ -164,26 +1073,25 @@ public class ExcelController {
         }
 
         worksheetController = sheetControllerList.get(sheetIndex);
+        worksheetController.mergeSheetBuffer();
 
         return worksheetController;
     }
 
     /**
-     * createObjectData에 쓰일 기본 아이콘 이미지를 등록한다.
-     * icon 이미지 파일은 /static/poi에서 불러온다.
+     * fileFormat의 아이콘 이미지(createObjectData에 쓰임)의 imageIndex를 반환한다.
+     * 아이콘 이미지는 Workbook마다 처음 사용될 때 한 번만 등록되며, 같은 아이콘을 쓰는 FileFormat(JPG, PNG)은 하나를 공유한다.
+     * @param fileFormat
+     * @return 아이콘 이미지의 imageIndex(Workbook.addPicture())
      */
-    private void registBaseIconImage(){
-        for(FileFormat fileFormat : FileFormat.values()){
-            String iconFileName = fileFormat.getIconName();
-            byte[] imageBytes = null;
-            try {
-                imageBytes = ClassLoader.getSystemClassLoader().getResourceAsStream("icon/" + iconFileName).readAllBytes();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-            int imageIndex = workbook.addPicture(imageBytes, ImageFormat.PICTURE_TYPE_PNG.getValue());
-            imageIndexMap.put(iconFileName, imageIndex);
+    protected int getIconImageIndex(final FileFormat fileFormat){
+        final String iconName = fileFormat.getIconName();
+        Integer imageIndex = imageIndexMap.get(iconName);
+        if(imageIndex == null){
+            imageIndex = addPicture(IconImageCache.getIconBytes(iconName), ImageFormat.PICTURE_TYPE_PNG.getValue());
+            imageIndexMap.put(iconName, imageIndex);
         }
+        return imageIndex;
     }
 
     /**
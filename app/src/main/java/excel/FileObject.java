@@ -1,7 +1,13 @@
 package excel;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
 public class FileObject {
-    private byte[] fileByteArray;
+    private byte[] fileByteArray; // payload로 생성되었으면 null
+    private Payload payload; // byte[]로 생성되었으면 null
     private FileFormat fileFormat;
     private String fileName;
     
@@ -15,12 +21,81 @@ public class FileObject {
         this.fileName = fileName;
     }
 
+    /**
+     **<pre>
+     **path의 파일로 FileObject를 생성한다.
+     **파일은 Heap에 올리지 않고 Workbook을 출력할 때 memory-map 하여 읽으며, 한 번에 하나의 파일만 Heap에서 OLE Package로 만들어져 기록된다.
+     **Workbook을 출력할 때까지 파일을 수정하거나 삭제하면 안 된다.
+     * </pre>
+     * @param path 파일 경로
+     * @param fileFormatEnum
+     * @param fileName
+     */
+    public FileObject(
+        Path path,
+        FileFormat fileFormatEnum,
+        String fileName
+    ) {
+        this(Payload.of(path), fileFormatEnum, fileName);
+    }
+
+    /**
+     **<pre>
+     **byteBuffer의 position부터 limit까지의 내용으로 FileObject를 생성한다.
+     **복사하지 않고 Workbook을 출력할 때 읽으므로, 그때까지 byteBuffer의 내용을 수정하면 안 된다.
+     * </pre>
+     * @param byteBuffer 파일 내용(Direct ByteBuffer, MappedByteBuffer 등)
+     * @param fileFormatEnum
+     * @param fileName
+     */
+    public FileObject(
+        ByteBuffer byteBuffer,
+        FileFormat fileFormatEnum,
+        String fileName
+    ) {
+        this(Payload.of(byteBuffer), fileFormatEnum, fileName);
+    }
+
+    /**
+     **<pre>
+     **inputStream의 남은 내용으로 FileObject를 생성한다.
+     **InputStream은 한 번만 읽을 수 있으므로 바로 임시 파일에 기록하여 보관하며, inputStream은 close하지 않는다.
+     **임시 파일은 이 객체를 더 이상 사용하지 않으면(GC) 삭제된다.
+     * </pre>
+     * @param inputStream 파일 내용
+     * @param fileFormatEnum
+     * @param fileName
+     * @throws IOException
+     */
+    public FileObject(
+        InputStream inputStream,
+        FileFormat fileFormatEnum,
+        String fileName
+    ) throws IOException {
+        this(Payload.of(inputStream), fileFormatEnum, fileName);
+    }
+
+    private FileObject(Payload payload, FileFormat fileFormatEnum, String fileName) {
+        this.payload = payload;
+        this.fileFormat = fileFormatEnum;
+        this.fileName = fileName;
+    }
+
     /**
      * Getter
+     * Path, ByteBuffer, InputStream으로 생성되었으면 호출할 때마다 내용을 새 byte[]로 읽는다.
      * @return embeddedFileByteArray
      */
     public byte[] getFileByteArray() {
-        return fileByteArray;
+        return fileByteArray != null ? fileByteArray : payload.readAllBytes();
+    }
+
+    /**
+     * Path, ByteBuffer, InputStream으로 생성되었으면 그 원본을 반환한다.
+     * @return payload, byte[]로 생성되었으면 null
+     */
+    Payload getPayload(){
+        return payload;
     }
 
     /**
@@ -0,0 +1,112 @@
+package excel;
+
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+
+/**
+ **<pre>
+ **Font의 속성(이름, 높이, Bold, 색상)을 나타내는 Key.
+ **CellController는 자신의 Key를 직접 수정하고, ExcelController는 copy()한 Key로 Font를 공유한다.
+ **따라서 ExcelController에 저장된 Key는 수정되지 않는다.(copy-on-write)
+ **높이는 1/20 points 단위이며, 색상은 0xRRGGBB 형태의 int이다.
+ * </pre>
+ */
+final class FontKey {
+    private String fontName;
+    private short fontHeight;
+    private boolean bold;
+    private int color;
+
+    private FontKey(String fontName, short fontHeight, boolean bold, int color) {
+        this.fontName = fontName;
+        this.fontHeight = fontHeight;
+        this.bold = bold;
+        this.color = color;
+    }
+
+    /**
+     * Workbook의 기본 Font(index 0)에 해당하는 Key를 생성한다.
+     * @return 새 기본 Key
+     */
+    static FontKey createDefault(){
+        return new FontKey(Base.BASE_FONT_NAME, (short)(Base.BASE_FONT_HEIGHT_POINTS * 20), false, CellStyleKey.NO_COLOR);
+    }
+
+    /**
+     * 이미 만들어진 Font의 속성을 읽어 Key를 생성한다.
+     * RGB가 아닌 색상(theme, indexed)은 NO_COLOR로 읽힌다.
+     * @param font
+     * @return font의 속성으로 만든 Key
+     */
+    static FontKey from(final Font font){
+        int color = CellStyleKey.NO_COLOR;
+        if(font instanceof XSSFFont){
+            color = CellStyleKey.toRgb(((XSSFFont)font).getXSSFColor());
+        }
+        return new FontKey(font.getFontName(), font.getFontHeight(), font.getBold(), color);
+    }
+
+    /**
+     * 같은 속성을 가진 새 Key를 반환한다.
+     * @return 복사된 Key
+     */
+    FontKey copy(){
+        return new FontKey(fontName, fontHeight, bold, color);
+    }
+
+    void setFontHeightInPoints(final short points){
+        this.fontHeight = (short)(points * 20);
+    }
+
+    void setBold(final boolean bold){
+        this.bold = bold;
+    }
+
+    void setColor(final int color){
+        this.color = color;
+    }
+
+    String getFontName() {
+        return fontName;
+    }
+
+    short getFontHeight() {
+        return fontHeight;
+    }
+
+    short getFontHeightInPoints() {
+        return (short)(fontHeight / 20);
+    }
+
+    boolean isBold() {
+        return bold;
+    }
+
+    int getColor() {
+        return color;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = fontName == null ? 0 : fontName.hashCode();
+        result = 31 * result + fontHeight;
+        result = 31 * result + (bold ? 1 : 0);
+        result = 31 * result + color;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj){
+            return true;
+        }
+        if(!(obj instanceof FontKey)){
+            return false;
+        }
+        FontKey other = (FontKey)obj;
+        return fontHeight == other.fontHeight
+            && bold == other.bold
+            && color == other.color
+            && (fontName == null ? other.fontName == null : fontName.equals(other.fontName));
+    }
+}
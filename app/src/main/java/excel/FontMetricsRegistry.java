@@ -0,0 +1,80 @@
+package excel;
+
+import java.awt.AWTError;
+import java.awt.Font;
+import java.awt.HeadlessException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ **<pre>
+ **(Font 이름, 크기, Bold)별 GlyphWidthTable을 JVM 전체에서 한 번만 만들어 보관한다.
+ **Font는 java.awt.Font로 찾으며, 설치되어 있지 않거나 java.awt.Font를 사용할 수 없는 환경(Font가 없는 headless 서버 등)에서는
+ **GlyphWidthTable.LEGACY(맑은 고딕 기준의 추정 폭)를 사용한다.
+ * </pre>
+ */
+final class FontMetricsRegistry {
+    private static final Map<Key, GlyphWidthTable> GLYPH_WIDTH_TABLE_MAP = new ConcurrentHashMap<>();
+
+    private FontMetricsRegistry() {
+    }
+
+    /**
+     * Font의 GlyphWidthTable을 반환한다.
+     * @param fontName Font 이름
+     * @param points Font 크기(points)
+     * @param bold Bold 여부
+     * @return GlyphWidthTable
+     */
+    static GlyphWidthTable getGlyphWidthTable(final String fontName, final int points, final boolean bold){
+        return GLYPH_WIDTH_TABLE_MAP.computeIfAbsent(new Key(fontName, points, bold), FontMetricsRegistry::createGlyphWidthTable);
+    }
+
+    private static GlyphWidthTable createGlyphWidthTable(final Key key){
+        if(key.fontName == null || key.points < 1){
+            return GlyphWidthTable.LEGACY;
+        }
+        try {
+            final Font font = new Font(key.fontName, key.bold ? Font.BOLD : Font.PLAIN, 1).deriveFont((float)UnitConverter.pointsToPixels(key.points));
+            // 설치되지 않은 Font는 Dialog(논리 Font)로 대체된다.
+            if(Font.DIALOG.equals(font.getFamily(Locale.ROOT)) && !Font.DIALOG.equalsIgnoreCase(key.fontName)){
+                return GlyphWidthTable.LEGACY;
+            }
+            return new GlyphWidthTable(font);
+        } catch (AWTError | HeadlessException | UnsatisfiedLinkError | NoClassDefFoundError e) {
+            // Font 설정이나 native library가 없는 환경(headless 서버 등)에서는 java.awt.Font 초기화가 실패할 수 있다.
+            return GlyphWidthTable.LEGACY;
+        }
+    }
+
+    private static final class Key {
+        private final String fontName;
+        private final int points;
+        private final boolean bold;
+
+        private Key(final String fontName, final int points, final boolean bold){
+            this.fontName = fontName;
+            this.points = points;
+            this.bold = bold;
+        }
+
+        @Override
+        public boolean equals(final Object object){
+            if(this == object){
+                return true;
+            }
+            if(!(object instanceof Key)){
+                return false;
+            }
+            final Key key = (Key)object;
+            return points == key.points && bold == key.bold && Objects.equals(fontName, key.fontName);
+        }
+
+        @Override
+        public int hashCode(){
+            return Objects.hash(fontName, points, bold);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package excel;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ **<pre>
+ **Font 하나(이름, 크기, Bold)의 글자별 폭 표.
+ **폭은 Font 크기(Pixels)를 1로 한 단위이며, 한글 한 글자가 대략 1이다.(TextLayout의 Line 수 계산 단위)
+ **표는 char를 256개씩 나눈 page 단위로, 처음 조회될 때 java.awt.Font로 계산하여 보관한다.
+ **Font가 설치되어 있지 않거나 표시할 수 없는 글자는 기존의 추정 폭(LEGACY)을 사용한다.
+ **FontMetricsRegistry에서 생성되며 여러 Thread에서 함께 사용해도 된다.
+ * </pre>
+ */
+final class GlyphWidthTable {
+    private static final int PAGE_SIZE = 256;
+    private static final int PAGE_COUNT = (Character.MAX_VALUE + 1) / PAGE_SIZE;
+    private static final FontRenderContext FONT_RENDER_CONTEXT = new FontRenderContext(null, true, true);
+
+    /**
+     * Font를 사용할 수 없을 때의 추정 폭 표.
+     */
+    static final GlyphWidthTable LEGACY = new GlyphWidthTable(null);
+
+    private final Font font; // null이면 LEGACY
+    private final AtomicReferenceArray<double[]> pages = new AtomicReferenceArray<>(PAGE_COUNT);
+
+    /**
+     * GlyphWidthTable의 생성자.
+     * @param font 폭을 계산할 Font(크기는 Pixels), null이면 추정 폭만 사용한다.
+     */
+    GlyphWidthTable(final Font font){
+        this.font = font;
+    }
+
+    /**
+     * 글자 하나의 폭을 반환한다.
+     * @param c
+     * @return 글자 폭(Font 크기 단위)
+     */
+    double getWidth(final char c){
+        double[] page = pages.get(c / PAGE_SIZE);
+        if(page == null){
+            page = createPage(c / PAGE_SIZE);
+            pages.set(c / PAGE_SIZE, page); // 같은 page를 동시에 계산하더라도 결과는 같다.
+        }
+        return page[c % PAGE_SIZE];
+    }
+
+    private double[] createPage(final int pageIndex){
+        final double[] page = new double[PAGE_SIZE];
+        final char[] glyph = new char[1];
+        for(int i = 0; i < PAGE_SIZE; i++){
+            final char c = (char)(pageIndex * PAGE_SIZE + i);
+            if(font != null && !Character.isSurrogate(c) && font.canDisplay(c)){
+                glyph[0] = c;
+                page[i] = font.getStringBounds(glyph, 0, 1, FONT_RENDER_CONTEXT).getWidth() / font.getSize2D();
+            }else{
+                page[i] = getLegacyWidth(c);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * 글자 종류에 따라 추정한 폭을 반환한다.(맑은 고딕 기준)
+     * @param c
+     * @return 글자 폭(Font 크기 단위)
+     */
+    private static double getLegacyWidth(final char c){
+        if(c == '"' || c == '\'' || c == '.' || c == ','){
+            return 0d;
+        }else if(c == 'l' || c == 'i' || c == 'j'){
+            return 0.25;
+        }else if(c == '(' || c == ')' || c == '{' || c == '}' || c == '[' || c == ']' || c == '!' || c == 'f' || c == 't' || c == 'I'){
+            return 0.3333;
+        }else if(c == ' ' || c == '-' || c == '_' || c == '*' || Character.isDigit(c) || (c >= 'a' && c <= 'z')){
+            return 0.5;
+        }else if(c >= 'A' && c <= 'Z'){
+            return 0.8;
+        }else{
+            return 1d;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package excel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ **<pre>
+ **setFile()/addFile()에서 파일 아이콘으로 쓰이는 기본 아이콘 이미지(PNG)를 JVM 전체에서 한 번만 읽어 보관한다.
+ **아이콘 이미지는 classpath의 icon/ 에서 ExcelController를 읽은 ClassLoader로 불러온다.
+ **반환된 byte[]는 여러 Workbook이 공유하므로 수정하면 안 된다.
+ * </pre>
+ */
+final class IconImageCache {
+    private static final Map<String, byte[]> ICON_BYTES_MAP = new ConcurrentHashMap<>(); // key: iconName, value: PNG byte[]
+
+    private IconImageCache() {
+    }
+
+    /**
+     * iconName에 해당하는 아이콘 이미지를 반환한다.
+     * 처음 요청될 때 classpath에서 읽고, 이후에는 보관된 byte[]를 반환한다.
+     * 아이콘 이미지를 찾을 수 없으면 IllegalStateException 예외를 발생한다.
+     * @param iconName FileFormat.getIconName()
+     * @return PNG byte[]
+     */
+    static byte[] getIconBytes(final String iconName){
+        return ICON_BYTES_MAP.computeIfAbsent(iconName, IconImageCache::readIconBytes);
+    }
+
+    private static byte[] readIconBytes(final String iconName){
+        final String resourceName = "icon/" + iconName;
+        try(InputStream inputStream = ExcelController.class.getClassLoader().getResourceAsStream(resourceName)){
+            if(inputStream == null){
+                throw new IllegalStateException("아이콘 이미지를 classpath에서 찾을 수 없습니다. (" + resourceName + ")");
+            }
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("아이콘 이미지를 읽을 수 없습니다. (" + resourceName + ")", e);
+        }
+    }
+}
@@ -17,4 +17,44 @@ public enum ImageFormat {
     public int getValue(){
         return this.value;
     }
+
+    /**
+     **<pre>
+     **bytes의 앞부분(magic bytes)으로 Image 형식을 판단한다.
+     **JPEG, PNG, EMF, WMF, DIB(BMP)를 판단할 수 있으며, PICT 등 판단할 수 없으면 null을 반환한다.
+     * </pre>
+     * @param bytes Image의 byte[]
+     * @return ImageFormat, 판단할 수 없으면 null
+     */
+    public static ImageFormat detect(final byte[] bytes){
+        if(startsWith(bytes, 0xFF, 0xD8, 0xFF)){
+            return PICTURE_TYPE_JPEG;
+        }
+        if(startsWith(bytes, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)){
+            return PICTURE_TYPE_PNG;
+        }
+        if(startsWith(bytes, 0x01, 0x00, 0x00, 0x00) && bytes.length >= 44
+            && bytes[40] == ' ' && bytes[41] == 'E' && bytes[42] == 'M' && bytes[43] == 'F'){
+            return PICTURE_TYPE_EMF;
+        }
+        if(startsWith(bytes, 0xD7, 0xCD, 0xC6, 0x9A) || startsWith(bytes, 0x01, 0x00, 0x09, 0x00) || startsWith(bytes, 0x02, 0x00, 0x09, 0x00)){
+            return PICTURE_TYPE_WMF;
+        }
+        if(startsWith(bytes, 'B', 'M')){
+            return PICTURE_TYPE_DIB;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(final byte[] bytes, final int... magic){
+        if(bytes.length < magic.length){
+            return false;
+        }
+        for(int i = 0; i < magic.length; i++){
+            if((bytes[i] & 0xFF) != magic[i]){
+                return false;
+            }
+        }
+        return true;
+    }
 }
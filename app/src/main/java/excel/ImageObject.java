@@ -2,29 +2,107 @@ package excel;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Iterator;
 
 import javax.imageio.ImageIO;
-import java.awt.Image;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import com.google.common.hash.Hashing;
 
 public class ImageObject {
-    private byte[] imageByteArray;
+    private byte[] imageByteArray; // payload로 생성되었으면 null
+    private Payload payload; // byte[]로 생성되었으면 null
     private ImageFormat imageFormat;
     private String imageKey;
-    private Image image;
+    private int width = -1; // 처음 getWidth()/getHeight()를 호출할 때 Image Header에서 읽는다.
+    private int height = -1;
+    private boolean contentHashed = false;
+    private long contentHash; // imageByteArray의 FarmHash Fingerprint64, 처음 사용할 때 계산한다.
     
     public ImageObject(byte[] imageByteArray, ImageFormat imageFormat, String imageKey) throws IOException{
         this.imageByteArray = imageByteArray;
         this.imageFormat = imageFormat;
         this.imageKey = imageKey;
-        this.image = ImageIO.read(new ByteArrayInputStream(imageByteArray));
+    }
+
+    /**
+     **<pre>
+     **path의 Image 파일로 ImageObject를 생성한다.
+     **파일은 Heap에 올리지 않고 필요할 때 memory-map 하여 읽으며, Workbook을 출력할 때 Package Part에 바로 기록된다.
+     **Workbook을 출력할 때까지 파일을 수정하거나 삭제하면 안 된다.
+     * </pre>
+     * @param path Image 파일 경로
+     * @param imageFormat
+     * @param imageKey
+     */
+    public ImageObject(Path path, ImageFormat imageFormat, String imageKey){
+        this(Payload.of(path), imageFormat, imageKey);
+    }
+
+    /**
+     **<pre>
+     **byteBuffer의 position부터 limit까지의 내용으로 ImageObject를 생성한다.
+     **복사하지 않고 Workbook을 출력할 때 Package Part에 바로 기록하므로, 그때까지 byteBuffer의 내용을 수정하면 안 된다.
+     * </pre>
+     * @param byteBuffer Image 내용(Direct ByteBuffer, MappedByteBuffer 등)
+     * @param imageFormat
+     * @param imageKey
+     */
+    public ImageObject(ByteBuffer byteBuffer, ImageFormat imageFormat, String imageKey){
+        this(Payload.of(byteBuffer), imageFormat, imageKey);
+    }
+
+    /**
+     **<pre>
+     **inputStream의 남은 내용으로 ImageObject를 생성한다.
+     **InputStream은 한 번만 읽을 수 있으므로 바로 임시 파일에 기록하여 보관하며, inputStream은 close하지 않는다.
+     **임시 파일은 이 객체를 더 이상 사용하지 않으면(GC) 삭제된다.
+     * </pre>
+     * @param inputStream Image 내용
+     * @param imageFormat
+     * @param imageKey
+     * @throws IOException
+     */
+    public ImageObject(InputStream inputStream, ImageFormat imageFormat, String imageKey) throws IOException{
+        this(Payload.of(inputStream), imageFormat, imageKey);
+    }
+
+    private ImageObject(Payload payload, ImageFormat imageFormat, String imageKey){
+        this.payload = payload;
+        this.imageFormat = imageFormat;
+        this.imageKey = imageKey;
     }
 
     /**
      * Getter
+     * Path, ByteBuffer, InputStream으로 생성되었으면 호출할 때마다 내용을 새 byte[]로 읽는다.
      * @return imageByteArray
      */
     public byte[] getImageByteArray() {
-        return imageByteArray;
+        return imageByteArray != null ? imageByteArray : payload.readAllBytes();
+    }
+
+    /**
+     * Path, ByteBuffer, InputStream으로 생성되었으면 그 원본을 반환한다.
+     * @return payload, byte[]로 생성되었으면 null
+     */
+    Payload getPayload(){
+        return payload;
+    }
+
+    /**
+     * 내용의 크기(byte)를 반환한다.
+     * Path, ByteBuffer로 생성되었으면 내용을 읽지 않는다.
+     * @return 내용의 크기
+     */
+    long getContentSize(){
+        return imageByteArray != null ? imageByteArray.length : payload.size();
     }
 
     /**
@@ -48,7 +126,8 @@ public class ImageObject {
      * @return image의 width(Pixels)
      */
     public int getWidth(){
-        return image.getWidth(null);
+        readSize();
+        return width;
     }
 
     /**
@@ -56,6 +135,50 @@ public class ImageObject {
      * @return image의 height(pixels)
      */
     public int getHeight(){
-        return image.getHeight(null);
+        readSize();
+        return height;
+    }
+
+    /**
+     * imageByteArray의 64bit hash(FarmHash Fingerprint64)를 반환한다.
+     * 처음 호출할 때 계산하며, ImageObjectLoader에서 미리 계산할 수 있다.
+     * @return content hash
+     */
+    long getContentHash(){
+        if(!contentHashed){
+            contentHash = imageByteArray != null ? Hashing.farmHashFingerprint64().hashBytes(imageByteArray).asLong() : payload.hash();
+            contentHashed = true;
+        }
+        return contentHash;
+    }
+
+    /**
+     **<pre>
+     **Image의 크기를 Header에서 읽는다.
+     **ImageReader로 Header만 읽으며 Pixel은 decode하지 않으므로, Image 크기와 관계없이 Raster를 메모리에 만들지 않는다.
+     **ImageIO가 읽을 수 없는 형식이면 IllegalArgumentException 예외를 발생한다.
+     * </pre>
+     */
+    private void readSize(){
+        if(width >= 0){
+            return;
+        }
+        try(InputStream inputStream = imageByteArray != null ? new ByteArrayInputStream(imageByteArray) : payload.openStream();
+            ImageInputStream imageInputStream = new MemoryCacheImageInputStream(inputStream)){
+            final Iterator<ImageReader> imageReaders = ImageIO.getImageReaders(imageInputStream);
+            if(!imageReaders.hasNext()){
+                throw new IllegalArgumentException("Image의 크기를 읽을 수 없는 형식입니다. (" + imageKey + ")");
+            }
+            final ImageReader imageReader = imageReaders.next();
+            try {
+                imageReader.setInput(imageInputStream, true, true);
+                height = imageReader.getHeight(0);
+                width = imageReader.getWidth(0);
+            } finally {
+                imageReader.dispose();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Image의 Header를 읽을 수 없습니다. (" + imageKey + ")", e);
+        }
     }
 }
@@ -0,0 +1,161 @@
+package excel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ **<pre>
+ **여러 개의 ImageObject를 executor에서 동시에 준비하는 loader.
+ **Image마다 byte[]를 읽고, magic bytes로 ImageFormat을 판단하고, Header에서 크기를 읽는다.
+ **setHashContent(true)이면 내용의 hash도 미리 계산하여, Workbook에 등록할 때의 중복 확인과 ImageResampler에서 다시 계산하지 않는다.
+ **결과는 add()한 순서대로 반환되며, 그대로 CellController.addImage()에 사용할 수 있다.
+ **executor에는 Virtual Thread Executor 등 어떤 Executor든 사용할 수 있다.
+ **예시)
+ **List<ImageObject> imageObjectList = new ImageObjectLoader()
+ **    .setExecutor(executorService)
+ **    .add("photo1", Paths.get("photo1.jpg"))
+ **    .add("photo2", photoBytes)
+ **    .load();
+ * </pre>
+ */
+public class ImageObjectLoader {
+    private Executor executor; // null이면 load()를 호출한 Thread에서 준비한다.
+    private boolean hashContent = false;
+    private final List<String> imageKeyList = new ArrayList<>();
+    private final List<Supplier<byte[]>> sourceList = new ArrayList<>();
+
+    /**
+     * ImageObject를 준비할 Executor를 설정한다.
+     * null이면(기본값) load()를 호출한 Thread에서 순서대로 준비한다.
+     * @param executor ImageObject를 준비할 Executor
+     * @return this
+     */
+    public ImageObjectLoader setExecutor(final Executor executor){
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * 내용의 hash를 미리 계산할지 설정한다.
+     * @param hashContent hash 계산 여부(기본값 false)
+     * @return this
+     */
+    public ImageObjectLoader setHashContent(final boolean hashContent){
+        this.hashContent = hashContent;
+        return this;
+    }
+
+    /**
+     * path의 파일을 Image로 추가한다.
+     * 파일은 load()할 때 executor에서 읽는다.
+     * @param imageKey ImageObject의 imageKey
+     * @param path Image 파일 경로
+     * @return this
+     */
+    public ImageObjectLoader add(final String imageKey, final Path path){
+        return add(imageKey, () -> {
+            try {
+                return Files.readAllBytes(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * imageByteArray를 Image로 추가한다.
+     * @param imageKey ImageObject의 imageKey
+     * @param imageByteArray Image의 byte[]
+     * @return this
+     */
+    public ImageObjectLoader add(final String imageKey, final byte[] imageByteArray){
+        return add(imageKey, () -> imageByteArray);
+    }
+
+    /**
+     * supplier가 반환하는 byte[]를 Image로 추가한다.
+     * supplier는 load()할 때 executor에서 호출되며, IOException은 UncheckedIOException으로 전달해야 한다.
+     * @param imageKey ImageObject의 imageKey
+     * @param supplier Image의 byte[]를 반환하는 함수
+     * @return this
+     */
+    public ImageObjectLoader add(final String imageKey, final Supplier<byte[]> supplier){
+        imageKeyList.add(imageKey);
+        sourceList.add(supplier);
+        return this;
+    }
+
+    /**
+     * 추가된 Image들을 모두 ImageObject로 준비하여 add()한 순서대로 반환한다.
+     * 하나라도 실패하면 그 예외를 발생한다.
+     * ImageFormat을 판단할 수 없는 Image가 있으면 IllegalArgumentException 예외를 발생한다.
+     * @return ImageObject 목록
+     * @throws IOException
+     */
+    public List<ImageObject> load() throws IOException{
+        try {
+            return loadAsync().join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof UncheckedIOException){
+                throw ((UncheckedIOException)e.getCause()).getCause();
+            }
+            if(e.getCause() instanceof RuntimeException){
+                throw (RuntimeException)e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 추가된 Image들을 모두 ImageObject로 준비하는 작업을 시작한다.
+     * @return add()한 순서대로의 ImageObject 목록으로 완료되는 CompletableFuture
+     */
+    public CompletableFuture<List<ImageObject>> loadAsync(){
+        final List<CompletableFuture<ImageObject>> futureList = new ArrayList<>(sourceList.size());
+        for(int i = 0; i < sourceList.size(); i++){
+            final String imageKey = imageKeyList.get(i);
+            final Supplier<byte[]> source = sourceList.get(i);
+            if(executor == null){
+                futureList.add(CompletableFuture.completedFuture(null).thenApply(ignore -> prepare(imageKey, source)));
+            }else{
+                futureList.add(CompletableFuture.supplyAsync(() -> prepare(imageKey, source), executor));
+            }
+        }
+        return CompletableFuture.allOf(futureList.toArray(new CompletableFuture<?>[0])).thenApply(ignore -> {
+            final List<ImageObject> imageObjectList = new ArrayList<>(futureList.size());
+            for(CompletableFuture<ImageObject> future : futureList){
+                imageObjectList.add(future.join());
+            }
+            return imageObjectList;
+        });
+    }
+
+    private ImageObject prepare(final String imageKey, final Supplier<byte[]> source){
+        final byte[] imageByteArray = source.get();
+        final ImageFormat imageFormat = ImageFormat.detect(imageByteArray);
+        if(imageFormat == null){
+            throw new IllegalArgumentException("Image 형식을 판단할 수 없습니다. (" + imageKey + ")");
+        }
+        final ImageObject imageObject;
+        try {
+            imageObject = new ImageObject(imageByteArray, imageFormat, imageKey);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if(imageFormat == ImageFormat.PICTURE_TYPE_JPEG || imageFormat == ImageFormat.PICTURE_TYPE_PNG){
+            imageObject.getWidth(); // Header에서 크기를 미리 읽는다.
+        }
+        if(hashContent){
+            imageObject.getContentHash();
+        }
+        return imageObject;
+    }
+}
@@ -0,0 +1,333 @@
+package excel;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ **<pre>
+ **CellController.addImage()로 추가되는 Image를 Cell에 표시되는 크기로 다시 encode한다.
+ **ExcelController.setImageResampler()로 설정하며, 설정하지 않으면 원본 Image가 그대로 저장된다.
+ **표시 크기(Pixel)에 scale을 곱한 크기가 원본보다 작을 때만 축소하며, JPEG과 PNG만 같은 형식으로 다시 encode한다.
+ **축소는 executor에서 진행되고, Workbook에는 자리만 먼저 등록했다가 출력할 때 축소된 Image로 채운다.
+ **결과는 (원본 내용의 hash, 축소 크기)로 보관하므로 같은 Image를 같은 크기로 여러 번 추가해도 한 번만 축소한다.
+ **보관하는 결과의 크기 합은 maxCacheBytes를 넘지 않으며, 넘으면 끝난 결과부터 삭제한다.
+ **하나의 ImageResampler를 여러 ExcelController에서 함께 사용해도 된다.
+ **예시)
+ **ImageResampler imageResampler = new ImageResampler().setScale(2).setJpegQuality(0.8f).setExecutor(executorService);
+ **excelController.setImageResampler(imageResampler);
+ * </pre>
+ */
+public class ImageResampler {
+    private double scale = 1d;
+    private float jpegQuality = 0.85f;
+    private Executor executor; // null이면 addImage()를 호출한 Thread에서 축소한다.
+    private volatile long maxCacheBytes = 64L * 1024 * 1024;
+    private final Map<Key, CompletableFuture<byte[]>> resampledMap = new ConcurrentHashMap<>(); // key: (원본 hash, 축소 크기), value: 축소된 Image, 원본을 사용하면 null
+    private long cachedBytes = 0; // resampledMap에 보관된 축소된 Image의 크기 합(this로 동기화)
+
+    /**
+     * 표시 크기에 곱할 배율을 설정한다.
+     * 고해상도 화면이나 인쇄를 위해 2를 설정하면 표시 크기의 2배(192 DPI)로 축소한다.
+     * @param scale 표시 크기 대비 배율(0보다 커야 한다, 기본값 1)
+     * @return this
+     */
+    public ImageResampler setScale(final double scale){
+        if(!(scale > 0)){
+            throw new IllegalArgumentException("scale은 0보다 커야 합니다.");
+        }
+        this.scale = scale;
+        return this;
+    }
+
+    /**
+     * JPEG으로 encode할 때의 품질을 설정한다.
+     * @param jpegQuality 0 ~ 1(기본값 0.85)
+     * @return this
+     */
+    public ImageResampler setJpegQuality(final float jpegQuality){
+        if(jpegQuality < 0f || jpegQuality > 1f){
+            throw new IllegalArgumentException("jpegQuality는 0 이상 1 이하여야 합니다.");
+        }
+        this.jpegQuality = jpegQuality;
+        return this;
+    }
+
+    /**
+     * Image를 축소할 Executor를 설정한다.
+     * null이면(기본값) addImage()를 호출한 Thread에서 축소한다.
+     * @param executor Image를 축소할 Executor
+     * @return this
+     */
+    public ImageResampler setExecutor(final Executor executor){
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * 보관할 축소된 Image의 크기 합의 최대값을 설정한다.
+     * 0이면 축소된 Image를 보관하지 않는다.(축소 중인 작업은 보관되어 같은 작업을 중복하지 않는다.)
+     * @param maxCacheBytes 최대 크기(byte, 기본값 64MB)
+     * @return this
+     */
+    public ImageResampler setMaxCacheBytes(final long maxCacheBytes){
+        if(maxCacheBytes < 0){
+            throw new IllegalArgumentException("maxCacheBytes는 0 이상이어야 합니다.");
+        }
+        this.maxCacheBytes = maxCacheBytes;
+        evictCache();
+        return this;
+    }
+
+    /**
+     * 보관하고 있는 축소된 Image를 모두 삭제한다.
+     * @return this
+     */
+    public ImageResampler clearCache(){
+        for(Key key : resampledMap.keySet()){
+            removeCache(key);
+        }
+        return this;
+    }
+
+    /**
+     * 표시 크기에 scale을 곱한 크기를 반환한다.
+     * @param displayPixels 표시 크기(Pixel)
+     * @return 축소할 크기(Pixel), 1 이상
+     */
+    int getTargetPixels(final int displayPixels){
+        return Math.max(1, (int)Math.round(displayPixels * scale));
+    }
+
+    /**
+     * imageObject를 축소할 수 있는 형식인지 반환한다.
+     * @param imageObject
+     * @return JPEG, PNG이면 true
+     */
+    static boolean isResamplable(final ImageObject imageObject){
+        return imageObject.getImageFormat() == ImageFormat.PICTURE_TYPE_JPEG || imageObject.getImageFormat() == ImageFormat.PICTURE_TYPE_PNG;
+    }
+
+    /**
+     **<pre>
+     **imageObject를 width x height로 축소하는 작업을 반환한다.
+     **같은 내용의 Image를 같은 크기로 축소한 결과(또는 진행 중인 작업)가 있으면 그것을 반환한다.
+     **작업은 resampledMap 밖에서 진행하므로, 축소하는 동안 다른 Thread의 조회를 막지 않는다.
+     **축소하지 못했거나 축소한 결과가 원본보다 작지 않으면 null로 완료되며, 이때는 원본 Image를 사용해야 한다.
+     * </pre>
+     * @param key resample()에서 사용할 Key, createKey()로 만든다.
+     * @param imageObject 원본 Image
+     * @return 축소된 Image(원본을 사용하면 null)로 완료되는 CompletableFuture
+     */
+    CompletableFuture<byte[]> resample(final Key key, final ImageObject imageObject){
+        final CompletableFuture<byte[]> cached = resampledMap.get(key);
+        if(cached != null){
+            return cached;
+        }
+        final CompletableFuture<byte[]> future = new CompletableFuture<>();
+        final CompletableFuture<byte[]> previous = resampledMap.putIfAbsent(key, future);
+        if(previous != null){
+            return previous;
+        }
+        if(executor == null){
+            complete(key, imageObject, future);
+        }else{
+            try {
+                executor.execute(() -> complete(key, imageObject, future));
+            } catch (RuntimeException e) {
+                resampledMap.remove(key, future);
+                future.completeExceptionally(e);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * imageObject를 축소하여 future를 완료하고, 아직 보관 중이면 축소된 Image의 크기를 보관한 크기 합에 더한다.
+     * 원본을 사용하는 결과(null)는 원본을 보관하지 않으므로 크기가 없다.
+     * 완료와 크기 계산은 removeCache()와 함께 동기화하여, 삭제된 결과의 크기가 더해지지 않도록 한다.
+     */
+    private void complete(final Key key, final ImageObject imageObject, final CompletableFuture<byte[]> future){
+        final byte[] resampled;
+        try {
+            resampled = resampleOrNull(imageObject, key.width, key.height);
+        } catch (Error e) {
+            resampledMap.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+        synchronized(this){
+            future.complete(resampled);
+            if(resampled != null && resampledMap.get(key) == future){
+                cachedBytes += resampled.length;
+            }
+        }
+        evictCache();
+    }
+
+    /**
+     * 보관한 크기 합이 maxCacheBytes를 넘으면 끝난 결과부터 삭제한다.
+     */
+    private synchronized void evictCache(){
+        for(Key key : resampledMap.keySet()){
+            if(cachedBytes <= maxCacheBytes){
+                return;
+            }
+            final CompletableFuture<byte[]> future = resampledMap.get(key);
+            if(future != null && future.isDone()){
+                removeCache(key);
+            }
+        }
+    }
+
+    /**
+     * key의 결과를 삭제하고, 축소된 Image의 크기를 보관한 크기 합에서 뺀다.
+     * 진행 중인 작업을 삭제하면 그 결과는 보관되지 않는다.
+     */
+    private synchronized void removeCache(final Key key){
+        final CompletableFuture<byte[]> future = resampledMap.remove(key);
+        if(future != null && future.isDone() && !future.isCompletedExceptionally()){
+            final byte[] resampled = future.join();
+            if(resampled != null){
+                cachedBytes -= resampled.length;
+            }
+        }
+    }
+
+    /**
+     * imageObject를 width x height로 축소할 때의 Key를 만든다.
+     * @param imageObject 원본 Image
+     * @param width 축소할 Width(Pixel)
+     * @param height 축소할 Height(Pixel)
+     * @return Key
+     */
+    Key createKey(final ImageObject imageObject, final int width, final int height){
+        return new Key(imageObject.getContentHash(), imageObject.getContentSize(), width, height, jpegQuality);
+    }
+
+    /**
+     * imageObject를 축소한다. Path 등으로 생성된 ImageObject는 이때 읽으며, 원본을 byte[]로 복사하지 않는다.
+     * @return 축소된 Image, 축소하지 못했거나 원본보다 작지 않으면 null
+     */
+    private byte[] resampleOrNull(final ImageObject imageObject, final int width, final int height){
+        final Payload payload = imageObject.getPayload();
+        final boolean jpeg = imageObject.getImageFormat() == ImageFormat.PICTURE_TYPE_JPEG;
+        try(InputStream source = payload != null ? payload.openStream() : new ByteArrayInputStream(imageObject.getImageByteArray())){
+            final byte[] resampled = encode(scaleImage(readImage(source, width, height), width, height, jpeg), jpeg);
+            return resampled.length < imageObject.getContentSize() ? resampled : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * source를 decode한다.
+     * 원본이 축소할 크기의 2배보다 크면 decode할 때 Pixel을 건너뛰어(subsampling) 메모리와 시간을 줄인다.
+     */
+    private static BufferedImage readImage(final InputStream source, final int width, final int height) throws IOException{
+        try(ImageInputStream imageInputStream = new MemoryCacheImageInputStream(source)){
+            final Iterator<ImageReader> imageReaders = ImageIO.getImageReaders(imageInputStream);
+            if(!imageReaders.hasNext()){
+                throw new IOException("Image를 읽을 수 없는 형식입니다.");
+            }
+            final ImageReader imageReader = imageReaders.next();
+            try {
+                imageReader.setInput(imageInputStream, true, true);
+                final int subsampling = Math.max(1, Math.min(imageReader.getWidth(0) / width, imageReader.getHeight(0) / height) / 2);
+                final ImageReadParam imageReadParam = imageReader.getDefaultReadParam();
+                imageReadParam.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return imageReader.read(0, imageReadParam);
+            } finally {
+                imageReader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scaleImage(final BufferedImage source, final int width, final int height, final boolean jpeg){
+        final BufferedImage target = new BufferedImage(width, height, jpeg ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encode(final BufferedImage image, final boolean jpeg) throws IOException{
+        final ImageWriter imageWriter = ImageIO.getImageWritersByFormatName(jpeg ? "jpeg" : "png").next();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try(ImageOutputStream imageOutputStream = new MemoryCacheImageOutputStream(outputStream)){
+            imageWriter.setOutput(imageOutputStream);
+            final ImageWriteParam imageWriteParam = imageWriter.getDefaultWriteParam();
+            if(jpeg){
+                imageWriteParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                imageWriteParam.setCompressionQuality(jpegQuality);
+            }
+            imageWriter.write(null, new IIOImage(image, null, null), imageWriteParam);
+        } finally {
+            imageWriter.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 축소 결과를 보관할 때 사용하는 Key.
+     * 원본 내용의 hash와 길이, 축소 크기, JPEG 품질로 구분한다.
+     */
+    static final class Key {
+        private final long hash;
+        private final long length;
+        private final int width;
+        private final int height;
+        private final float jpegQuality;
+
+        private Key(final long hash, final long length, final int width, final int height, final float jpegQuality){
+            this.hash = hash;
+            this.length = length;
+            this.width = width;
+            this.height = height;
+            this.jpegQuality = jpegQuality;
+        }
+
+        @Override
+        public boolean equals(final Object object){
+            if(this == object){
+                return true;
+            }
+            if(!(object instanceof Key)){
+                return false;
+            }
+            final Key key = (Key)object;
+            return hash == key.hash && length == key.length && width == key.width && height == key.height && jpegQuality == key.jpegQuality;
+        }
+
+        @Override
+        public int hashCode(){
+            return Objects.hash(hash, length, width, height, jpegQuality);
+        }
+    }
+}
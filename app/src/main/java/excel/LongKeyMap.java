@@ -0,0 +1,190 @@
+package excel;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * long을 Key로 사용하는 open-addressing(linear probing) Map.
+ * Key를 boxing 하지 않고, Entry 객체도 만들지 않는다.
+ * value로 null은 사용할 수 없다.(null은 빈 칸을 의미한다)
+ * @param <V> value 타입
+ */
+final class LongKeyMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    LongKeyMap(){
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize 예상되는 Entry 수
+     */
+    LongKeyMap(final int expectedSize){
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, DEFAULT_CAPACITY / 2) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(final int capacity){
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = capacity / 2; // load factor 0.5
+    }
+
+    /**
+     * key를 table의 index로 변환한다.(murmur3 fmix64)
+     */
+    private int indexOf(final long key){
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int)h & mask;
+    }
+
+    /**
+     * key에 해당하는 value를 반환한다.
+     * @param key
+     * @return key에 해당하는 value, 없으면 null
+     */
+    @SuppressWarnings("unchecked")
+    V get(final long key){
+        int index = indexOf(key);
+        Object value;
+        while((value = values[index]) != null){
+            if(keys[index] == key){
+                return (V)value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * key에 value를 저장한다.
+     * @param key
+     * @param value null이 아닌 value
+     * @return 기존 value, 없으면 null
+     */
+    @SuppressWarnings("unchecked")
+    V put(final long key, final V value){
+        if(value == null){
+            throw new IllegalArgumentException("value는 null일 수 없습니다.");
+        }
+        int index = indexOf(key);
+        Object current;
+        while((current = values[index]) != null){
+            if(keys[index] == key){
+                values[index] = value;
+                return (V)current;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if(++size > resizeThreshold){
+            resize();
+        }
+        return null;
+    }
+
+    /**
+     * key에 해당하는 Entry를 제거한다.
+     * 삭제 표시(tombstone)를 남기지 않고, 뒤따르는 Entry를 앞으로 당긴다.(backward shift deletion)
+     * @param key
+     * @return 제거된 value, 없으면 null
+     */
+    @SuppressWarnings("unchecked")
+    V remove(final long key){
+        int index = indexOf(key);
+        Object value;
+        while((value = values[index]) != null){
+            if(keys[index] == key){
+                shiftBack(index);
+                size--;
+                return (V)value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    private void shiftBack(int hole){
+        int index = (hole + 1) & mask;
+        while(values[index] != null){
+            int home = indexOf(keys[index]);
+            // home이 (hole, index] 구간 밖에 있으면 hole로 옮겨도 탐색 경로가 끊기지 않는다.
+            if(((index - home) & mask) >= ((index - hole) & mask)){
+                keys[hole] = keys[index];
+                values[hole] = values[index];
+                hole = index;
+            }
+            index = (index + 1) & mask;
+        }
+        values[hole] = null;
+    }
+
+    private void resize(){
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for(int i = 0; i < oldKeys.length; i++){
+            if(oldValues[i] != null){
+                int index = indexOf(oldKeys[i]);
+                while(values[index] != null){
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * key가 predicate를 만족하는 Entry를 모두 제거한다.
+     * @param predicate 제거할 key의 조건
+     * @param removedValueConsumer 제거된 value를 받는다.
+     * @return 제거된 Entry 수
+     */
+    int removeIf(final LongPredicate predicate, final Consumer<? super V> removedValueConsumer){
+        long[] removeKeys = new long[16];
+        int removeCount = 0;
+        for(int i = 0; i < keys.length; i++){
+            if(values[i] != null && predicate.test(keys[i])){
+                if(removeCount == removeKeys.length){
+                    removeKeys = Arrays.copyOf(removeKeys, removeCount * 2);
+                }
+                removeKeys[removeCount++] = keys[i];
+            }
+        }
+        for(int i = 0; i < removeCount; i++){
+            removedValueConsumer.accept(remove(removeKeys[i]));
+        }
+        return removeCount;
+    }
+
+    /**
+     * 저장된 Entry 수를 반환한다.
+     * @return Entry 수
+     */
+    int size(){
+        return size;
+    }
+
+    /**
+     * 모든 Entry를 제거한다.
+     */
+    void clear(){
+        Arrays.fill(values, null);
+        size = 0;
+    }
+}
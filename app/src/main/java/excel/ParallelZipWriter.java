@@ -0,0 +1,280 @@
+package excel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+/**
+ **<pre>
+ **압축되지 않은 zip의 Entry들을 여러 Thread에서 다시 압축하여 같은 순서의 zip으로 출력한다.
+ **Entry를 BLOCK_SIZE 단위의 block으로 나누고, block마다 따로 DEFLATE 한 뒤 순서대로 이어 붙인다.(pigz 방식)
+ **각 block은 앞 block의 마지막 32KB를 dictionary로 사용하고 SYNC_FLUSH로 끝나므로,
+ **이어 붙인 결과는 하나의 올바른 DEFLATE stream이 된다.
+ **따라서 Sheet XML처럼 큰 Entry 하나도 여러 Thread에서 압축된다.
+ **압축된 block은 순서대로 바로 출력하고, 압축된 크기와 CRC는 Entry 뒤의 data descriptor에 기록하므로
+ **Entry 전체를 메모리에 두지 않고 MAX_BLOCKS_IN_FLIGHT개의 block만 메모리에 둔다.
+ **CRC와 원본 크기는 원본 zip의 central directory에 있는 값을 그대로 사용한다.
+ **replacementMap에 있는 Entry는 원본 zip의 내용 대신 Payload의 내용을 읽어 기록하며, 이때는 CRC와 크기를 읽으면서 계산한다.
+ * </pre>
+ */
+final class ParallelZipWriter {
+    private static final int BLOCK_SIZE = 256 * 1024;
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final int MAX_BLOCKS_IN_FLIGHT = 64; // 압축 중이거나 출력을 기다리는 block 수의 상한(메모리 제한)
+    private static final byte[] EMPTY_BLOCK = new byte[0];
+
+    private ParallelZipWriter() {
+    }
+
+    /**
+     * source의 Entry들을 compressionLevel로 다시 압축하여 outputStream에 zip으로 출력한다.
+     * outputStream은 close하지 않는다.
+     * @param source 압축되지 않은(또는 어떤 수준이든) zip
+     * @param outputStream 출력 대상
+     * @param compressionLevel 압축 수준
+     * @param executor block을 압축할 Executor
+     * @param replacementMap key: Entry 이름, value: 원본 zip의 내용 대신 기록할 내용
+     * @throws IOException
+     */
+    static void write(final ZipFile source, final OutputStream outputStream, final CompressionLevel compressionLevel, final Executor executor,
+        final Map<String, Payload> replacementMap) throws IOException{
+        final BlockZipArchiveOutputStream zipArchiveOutputStream = new BlockZipArchiveOutputStream(outputStream);
+        final Enumeration<ZipArchiveEntry> entries = source.getEntriesInPhysicalOrder();
+        while(entries.hasMoreElements()){
+            final ZipArchiveEntry sourceEntry = entries.nextElement();
+            final Payload replacement = replacementMap.get(sourceEntry.getName());
+            if(compressionLevel == CompressionLevel.STORED){
+                writeStoredEntry(source, sourceEntry, replacement, zipArchiveOutputStream);
+            }else{
+                writeDeflatedEntry(source, sourceEntry, replacement, zipArchiveOutputStream, compressionLevel.getValue(), executor);
+            }
+        }
+        zipArchiveOutputStream.finish();
+        zipArchiveOutputStream.flush();
+    }
+
+    private static ZipArchiveEntry createEntry(final ZipArchiveEntry sourceEntry, final int method){
+        final ZipArchiveEntry entry = new ZipArchiveEntry(sourceEntry.getName());
+        entry.setMethod(method);
+        entry.setTime(sourceEntry.getTime());
+        entry.setSize(sourceEntry.getSize());
+        entry.setCrc(sourceEntry.getCrc());
+        return entry;
+    }
+
+    private static InputStream openEntry(final ZipFile source, final ZipArchiveEntry sourceEntry, final Payload replacement) throws IOException{
+        return replacement != null ? replacement.openStream() : source.getInputStream(sourceEntry);
+    }
+
+    private static void writeStoredEntry(final ZipFile source, final ZipArchiveEntry sourceEntry, final Payload replacement, final ZipArchiveOutputStream zipArchiveOutputStream) throws IOException{
+        final ZipArchiveEntry entry = createEntry(sourceEntry, ZipArchiveEntry.STORED);
+        if(replacement != null){
+            // STORED Entry는 Header에 CRC와 크기가 먼저 기록되므로 한 번 읽어서 계산한다.
+            final CRC32 crc = new CRC32();
+            long size = 0;
+            try(InputStream inputStream = replacement.openStream()){
+                final byte[] buffer = new byte[64 * 1024];
+                int length;
+                while((length = inputStream.read(buffer)) != -1){
+                    crc.update(buffer, 0, length);
+                    size += length;
+                }
+            }
+            entry.setSize(size);
+            entry.setCrc(crc.getValue());
+        }
+        entry.setCompressedSize(entry.getSize());
+        try(InputStream inputStream = openEntry(source, sourceEntry, replacement)){
+            zipArchiveOutputStream.addRawArchiveEntry(entry, inputStream);
+        }
+    }
+
+    private static void writeDeflatedEntry(final ZipFile source, final ZipArchiveEntry sourceEntry, final Payload replacement, final BlockZipArchiveOutputStream zipArchiveOutputStream, final int level, final Executor executor) throws IOException{
+        // 압축된 크기를 미리 알 수 없으므로 Header에 크기를 기록하지 않고, Entry 뒤의 data descriptor에 기록한다.
+        final ZipArchiveEntry entry = createEntry(sourceEntry, ZipArchiveEntry.DEFLATED);
+        try(DeflatedBlockInputStream deflatedBlockInputStream = new DeflatedBlockInputStream(openEntry(source, sourceEntry, replacement), level, executor, replacement != null)){
+            zipArchiveOutputStream.currentBlockStream = deflatedBlockInputStream;
+            zipArchiveOutputStream.addRawArchiveEntry(entry, deflatedBlockInputStream);
+        }finally{
+            zipArchiveOutputStream.currentBlockStream = null;
+        }
+    }
+
+    /**
+     * block 하나를 raw DEFLATE로 압축한다.
+     * @param input 원본 block
+     * @param dictionary 앞 block의 마지막 32KB, 첫 block이면 null
+     * @param level Deflater의 압축 수준
+     * @param last 마지막 block이면 stream을 끝내고, 아니면 SYNC_FLUSH로 byte 경계에 맞춘다.
+     * @return 압축된 block
+     */
+    private static byte[] deflateBlock(final byte[] input, final byte[] dictionary, final int level, final boolean last){
+        final Deflater deflater = new Deflater(level, true);
+        try {
+            if(dictionary != null){
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(input);
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(input.length / 4 + 64);
+            final byte[] buffer = new byte[64 * 1024];
+            if(last){
+                deflater.finish();
+                while(!deflater.finished()){
+                    final int length = deflater.deflate(buffer);
+                    outputStream.write(buffer, 0, length);
+                }
+            }else{
+                int length;
+                do{
+                    length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    outputStream.write(buffer, 0, length);
+                }while(length == buffer.length);
+            }
+            return outputStream.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 압축된 크기 등을 Entry를 모두 출력한 뒤에 data descriptor와 central directory에 기록하는 ZipArchiveOutputStream.
+     */
+    private static final class BlockZipArchiveOutputStream extends ZipArchiveOutputStream {
+        private DeflatedBlockInputStream currentBlockStream; // 출력 중인 DEFLATED Entry의 내용
+
+        private BlockZipArchiveOutputStream(final OutputStream outputStream){
+            super(outputStream);
+        }
+
+        @Override
+        protected void writeDataDescriptor(final ZipArchiveEntry zipArchiveEntry) throws IOException{
+            if(currentBlockStream != null){
+                currentBlockStream.applyTo(zipArchiveEntry);
+            }
+            super.writeDataDescriptor(zipArchiveEntry);
+        }
+    }
+
+    /**
+     **<pre>
+     **원본을 BLOCK_SIZE 단위로 읽어 executor에서 압축하고, 압축된 block을 순서대로 읽게 하는 InputStream.
+     **압축을 요청한 뒤 아직 읽히지 않은 block은 MAX_BLOCKS_IN_FLIGHT개를 넘지 않는다.
+     * </pre>
+     */
+    private static final class DeflatedBlockInputStream extends InputStream {
+        private final InputStream source;
+        private final int level;
+        private final Executor executor;
+        private final CRC32 crc; // 원본 zip의 CRC를 사용할 수 없으면 읽으면서 계산한다.
+        private final ArrayDeque<CompletableFuture<byte[]>> blockQueue = new ArrayDeque<>(MAX_BLOCKS_IN_FLIGHT);
+        private byte[] nextBlock; // 압축을 요청하지 않은 원본 block, 모두 요청했으면 null
+        private byte[] dictionary;
+        private byte[] compressed = EMPTY_BLOCK; // 읽고 있는 압축된 block
+        private int position;
+        private long size;
+        private long compressedSize;
+
+        private DeflatedBlockInputStream(final InputStream source, final int level, final Executor executor, final boolean computeCrc) throws IOException{
+            this.source = source;
+            this.level = level;
+            this.executor = executor;
+            this.crc = computeCrc ? new CRC32() : null;
+            this.nextBlock = source.readNBytes(BLOCK_SIZE);
+        }
+
+        /**
+         * MAX_BLOCKS_IN_FLIGHT개가 될 때까지 원본 block을 읽어 압축을 요청한다.
+         * @throws IOException
+         */
+        private void submitBlocks() throws IOException{
+            while(nextBlock != null && blockQueue.size() < MAX_BLOCKS_IN_FLIGHT){
+                final byte[] block = nextBlock;
+                if(crc != null){
+                    crc.update(block);
+                }
+                size += block.length;
+                final byte[] followingBlock = block.length == BLOCK_SIZE ? source.readNBytes(BLOCK_SIZE) : EMPTY_BLOCK;
+                final boolean last = followingBlock.length == 0;
+                final byte[] blockDictionary = dictionary;
+                blockQueue.add(CompletableFuture.supplyAsync(() -> deflateBlock(block, blockDictionary, level, last), executor));
+                dictionary = last ? null : Arrays.copyOfRange(block, block.length - DICTIONARY_SIZE, block.length);
+                nextBlock = last ? null : followingBlock;
+            }
+        }
+
+        /**
+         * 다음 압축된 block이 끝날 때까지 기다린다.
+         * @return 더 읽을 block이 없으면 false
+         * @throws IOException
+         */
+        private boolean nextCompressedBlock() throws IOException{
+            submitBlocks();
+            final CompletableFuture<byte[]> block = blockQueue.poll();
+            if(block == null){
+                return false;
+            }
+            compressed = block.join();
+            position = 0;
+            compressedSize += compressed.length;
+            submitBlocks(); // 이 block을 출력하는 동안 다음 block들을 압축한다.
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException{
+            while(position == compressed.length){
+                if(!nextCompressedBlock()){
+                    return -1;
+                }
+            }
+            return compressed[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException{
+            if(length == 0){
+                return 0;
+            }
+            while(position == compressed.length){
+                if(!nextCompressedBlock()){
+                    return -1;
+                }
+            }
+            final int count = Math.min(length, compressed.length - position);
+            System.arraycopy(compressed, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        /**
+         * 모두 읽은 뒤 압축된 크기와, 계산한 CRC와 원본 크기를 zipArchiveEntry에 설정한다.
+         * @param zipArchiveEntry
+         */
+        private void applyTo(final ZipArchiveEntry zipArchiveEntry){
+            zipArchiveEntry.setCompressedSize(compressedSize);
+            if(crc != null){
+                zipArchiveEntry.setSize(size);
+                zipArchiveEntry.setCrc(crc.getValue());
+            }
+        }
+
+        @Override
+        public void close() throws IOException{
+            blockQueue.clear();
+            source.close();
+        }
+    }
+}
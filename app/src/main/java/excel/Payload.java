@@ -0,0 +1,226 @@
+package excel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.poi.hpsf.ClassIDPredefined;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.Ole10Native;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ **<pre>
+ **ImageObject, FileObject의 내용(byte[])을 Heap에 올리지 않고 필요할 때 읽기 위한 원본.
+ **Path는 읽을 때마다 memory-map 하고, ByteBuffer는 복사하지 않고 그대로 읽는다.
+ **InputStream은 임시 파일에 기록한 뒤 Path처럼 읽는다.
+ **Workbook을 출력할 때 openStream()으로 읽어 Package Part에 바로 기록한다.
+ * </pre>
+ */
+abstract class Payload {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final Cleaner TEMP_FILE_CLEANER = Cleaner.create(); // of(InputStream)의 임시 파일을 삭제한다.
+
+    /**
+     * 내용을 처음부터 읽는 InputStream을 반환한다.
+     * @return InputStream
+     * @throws IOException
+     */
+    abstract InputStream openStream() throws IOException;
+
+    /**
+     * 내용을 모두 byte[]로 읽는다.
+     * @return 내용
+     */
+    byte[] readAllBytes(){
+        try(InputStream inputStream = openStream()){
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 내용의 크기(byte)를 반환한다.
+     * 기본적으로 내용을 끝까지 읽어 세며, 크기를 바로 알 수 있는 원본은 읽지 않는다.
+     * @return 내용의 크기
+     */
+    long size(){
+        try(InputStream inputStream = openStream()){
+            return inputStream.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 내용의 64bit hash(FarmHash Fingerprint64)를 계산한다.
+     * 내용을 Heap에 모두 올리지 않고 READ_BUFFER_SIZE 단위로 읽는다.
+     * @return content hash
+     */
+    long hash(){
+        final Hasher hasher = Hashing.farmHashFingerprint64().newHasher();
+        try(InputStream inputStream = openStream()){
+            final byte[] buffer = new byte[READ_BUFFER_SIZE];
+            int length;
+            while((length = inputStream.read(buffer)) != -1){
+                hasher.putBytes(buffer, 0, length);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return hasher.hash().asLong();
+    }
+
+    /**
+     * path의 파일을 원본으로 한다.
+     * 파일은 openStream()을 호출할 때마다 memory-map 하여 읽으므로, 출력할 때까지 파일을 수정하거나 삭제하면 안 된다.
+     * @param path 파일 경로
+     * @return Payload
+     */
+    static Payload of(final Path path){
+        return new Payload(){
+            @Override
+            InputStream openStream() throws IOException{
+                try(FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)){
+                    return new ByteBufferInputStream(fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size()));
+                }
+            }
+
+            @Override
+            long size(){
+                try {
+                    return Files.size(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * byteBuffer의 position부터 limit까지를 원본으로 한다.
+     * 복사하지 않으므로 출력할 때까지 byteBuffer의 내용을 수정하면 안 된다.
+     * @param byteBuffer 내용
+     * @return Payload
+     */
+    static Payload of(final ByteBuffer byteBuffer){
+        final ByteBuffer source = byteBuffer.slice();
+        return new Payload(){
+            @Override
+            InputStream openStream(){
+                return new ByteBufferInputStream(source.duplicate());
+            }
+
+            @Override
+            long size(){
+                return source.remaining();
+            }
+        };
+    }
+
+    /**
+     **<pre>
+     **inputStream의 남은 내용을 모두 임시 파일에 기록하고, 그 파일을 원본으로 한다.(of(Path))
+     **InputStream은 한 번만 읽을 수 있으므로 바로 읽으며, inputStream은 close하지 않는다.
+     **내용을 Heap이나 Direct Memory에 올리지 않으므로 큰 파일도 크기만큼의 디스크만 사용한다.
+     **임시 파일은 반환된 Payload가 GC될 때(또는 JVM이 종료될 때) 삭제된다.
+     * </pre>
+     * @param inputStream 내용
+     * @return Payload
+     * @throws IOException
+     */
+    static Payload of(final InputStream inputStream) throws IOException{
+        final Path tempFile = Files.createTempFile("excel-payload", ".tmp");
+        try {
+            Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        tempFile.toFile().deleteOnExit();
+        final Payload payload = of(tempFile);
+        TEMP_FILE_CLEANER.register(payload, () -> {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                // JVM이 종료될 때 다시 삭제한다.(deleteOnExit)
+            }
+        });
+        return payload;
+    }
+
+    /**
+     **<pre>
+     **content를 OLE Package(Workbook.addOlePackage()로 만들어지는 oleObject.bin)로 만든 내용을 원본으로 한다.
+     **openStream()을 호출할 때마다 content를 읽어 만들며, 만든 결과는 보관하지 않는다.
+     * </pre>
+     * @param content 파일 내용
+     * @param fileName 파일 이름(label, command로도 사용)
+     * @return Payload
+     */
+    static Payload ofOlePackage(final Payload content, final String fileName){
+        return new Payload(){
+            @Override
+            InputStream openStream() throws IOException{
+                final ByteArrayOutputStream ole10OutputStream = new ByteArrayOutputStream();
+                new Ole10Native(fileName, fileName, fileName, content.readAllBytes()).writeOut(ole10OutputStream);
+                try(POIFSFileSystem poifs = new POIFSFileSystem()){
+                    final DirectoryNode root = poifs.getRoot();
+                    root.createDocument(Ole10Native.OLE10_NATIVE, new ByteArrayInputStream(ole10OutputStream.toByteArray()));
+                    root.setStorageClsid(ClassIDPredefined.OLE_V1_PACKAGE.getClassID());
+                    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                    poifs.writeFilesystem(outputStream);
+                    return new ByteArrayInputStream(outputStream.toByteArray());
+                }
+            }
+        };
+    }
+
+    /**
+     * ByteBuffer의 position부터 limit까지를 읽는 InputStream.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer byteBuffer;
+
+        private ByteBufferInputStream(final ByteBuffer byteBuffer){
+            this.byteBuffer = byteBuffer;
+        }
+
+        @Override
+        public int read(){
+            return byteBuffer.hasRemaining() ? byteBuffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length){
+            if(length == 0){
+                return 0;
+            }
+            if(!byteBuffer.hasRemaining()){
+                return -1;
+            }
+            final int readLength = Math.min(length, byteBuffer.remaining());
+            byteBuffer.get(bytes, offset, readLength);
+            return readLength;
+        }
+
+        @Override
+        public int available(){
+            return byteBuffer.remaining();
+        }
+    }
+}
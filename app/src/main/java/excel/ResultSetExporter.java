@@ -0,0 +1,260 @@
+package excel;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.function.LongConsumer;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+
+/**
+ **<pre>
+ **java.sql.ResultSet의 Row를 fetch하는 대로 SheetController의 마지막 Row 다음부터 입력한다.
+ **전체 결과를 List 등에 모으지 않으며, CellController도 만들지 않는다.
+ **Column의 SQL 타입에 따라 숫자, 날짜, Boolean, 문자열로 입력되고, Column마다 하나의 공유 CellStyle을 사용한다.
+ **Header는 ResultSetMetaData의 Column Label로 만든다.
+ **Streaming 방식의 ExcelController와 함께 사용하면 Row 수와 관계없이 메모리 사용량이 일정하다.
+ **예시)
+ **new ResultSetExporter(excelController.selectWorksheet(0))
+ **    .setProgressListener(10000, rowCount -> log.info(rowCount + " rows"))
+ **    .export(resultSet);
+ * </pre>
+ */
+public class ResultSetExporter {
+    private static final String DATE_FORMAT = "yyyy-mm-dd";
+    private static final String TIMESTAMP_FORMAT = "yyyy-mm-dd hh:mm:ss";
+
+    // Column의 값을 ResultSet에서 읽는 방식
+    private static final int KIND_TEXT = 0;
+    private static final int KIND_NUMBER = 1;
+    private static final int KIND_DATE = 2;
+    private static final int KIND_TIMESTAMP = 3;
+    private static final int KIND_BOOLEAN = 4;
+
+    private final SheetController sheetController;
+    private boolean writeHeader = true;
+    private ColumnSchema columnSchema; // null이면 SQL 타입으로 만든다.
+    private int progressInterval = 0;
+    private LongConsumer progressListener;
+
+    /**
+     * ResultSetExporter의 생성자.
+     * @param sheetController Row를 입력할 Sheet
+     */
+    public ResultSetExporter(final SheetController sheetController){
+        this.sheetController = sheetController;
+    }
+
+    /**
+     * Header Row를 입력할지 설정한다.
+     * @param writeHeader Header Row 입력 여부(기본값 true)
+     * @return this
+     */
+    public ResultSetExporter setWriteHeader(final boolean writeHeader){
+        this.writeHeader = writeHeader;
+        return this;
+    }
+
+    /**
+     **<pre>
+     **Column들의 Style과 DataFormat을 지정한다.
+     **지정하지 않으면 SQL 타입에 따라 만들어진다.(숫자: 기본, DATE: yyyy-mm-dd, TIMESTAMP: yyyy-mm-dd hh:mm:ss)
+     **숫자, 날짜 Column의 ColumnType은 AUTO이거나 SQL 타입과 맞아야 하며, 맞지 않으면 export()에서 IllegalArgumentException 예외를 발생한다.
+     * </pre>
+     * @param columnSchema Column들의 타입, Style, DataFormat
+     * @return this
+     */
+    public ResultSetExporter setColumnSchema(final ColumnSchema columnSchema){
+        this.columnSchema = columnSchema;
+        return this;
+    }
+
+    /**
+     * 진행 상황을 받을 listener를 설정한다.
+     * listener는 interval개의 Row를 입력할 때마다, 그리고 마지막에 한 번 지금까지 입력된 Row 수(Header 제외)를 받는다.
+     * @param interval 진행 상황을 알릴 Row 간격(1 이상)
+     * @param progressListener 입력된 Row 수를 받는 listener
+     * @return this
+     */
+    public ResultSetExporter setProgressListener(final int interval, final LongConsumer progressListener){
+        if(interval < 1){
+            throw new IllegalArgumentException("interval은 1 이상이어야 합니다.");
+        }
+        this.progressInterval = interval;
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * resultSet의 남은 Row를 모두 Sheet에 입력한다.
+     * resultSet은 close하지 않는다.
+     * @param resultSet 입력할 ResultSet
+     * @return 입력된 Row 수(Header 제외)
+     * @throws SQLException
+     */
+    public long export(final ResultSet resultSet) throws SQLException{
+        final ResultSetMetaData metaData = resultSet.getMetaData();
+        final int columnCount = metaData.getColumnCount();
+        final int[] kinds = new int[columnCount];
+        for(int i = 0; i < columnCount; i++){
+            kinds[i] = getKind(metaData.getColumnType(i + 1));
+        }
+
+        if(writeHeader){
+            writeHeader(metaData, columnCount);
+        }
+
+        final RowWriter rowWriter = new RowWriter(sheetController.getExcelController(), columnSchema != null ? columnSchema : createColumnSchema(kinds));
+        final CellStyle[] cellStyles = new CellStyle[columnCount];
+        for(int i = 0; i < columnCount; i++){
+            switch(kinds[i]){
+                case KIND_NUMBER:
+                    cellStyles[i] = rowWriter.getNumberCellStyle(i);
+                    break;
+                case KIND_DATE:
+                case KIND_TIMESTAMP:
+                    cellStyles[i] = rowWriter.getDateColumnCellStyle(i);
+                    break;
+                default:
+                    cellStyles[i] = rowWriter.getCellStyle(i);
+            }
+        }
+
+        long rowCount = 0;
+        while(resultSet.next()){
+            final Row row = sheetController.appendEmptyRow();
+            for(int i = 0; i < columnCount; i++){
+                final Cell cell = row.createCell(i);
+                cell.setCellStyle(cellStyles[i]);
+                writeValue(resultSet, i + 1, kinds[i], cell);
+            }
+            rowCount++;
+            if(progressListener != null && rowCount % progressInterval == 0){
+                progressListener.accept(rowCount);
+            }
+        }
+        if(progressListener != null && rowCount % progressInterval != 0){
+            progressListener.accept(rowCount);
+        }
+        return rowCount;
+    }
+
+    /**
+     * SQL 타입을 값을 읽는 방식으로 변환한다.
+     * @param sqlType java.sql.Types
+     * @return KIND_*
+     */
+    private static int getKind(final int sqlType){
+        switch(sqlType){
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.FLOAT:
+            case Types.REAL:
+            case Types.DOUBLE:
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return KIND_NUMBER;
+            case Types.DATE:
+                return KIND_DATE;
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return KIND_TIMESTAMP;
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return KIND_BOOLEAN;
+            default:
+                return KIND_TEXT;
+        }
+    }
+
+    private static ColumnSchema createColumnSchema(final int[] kinds){
+        final ColumnSchema columnSchema = new ColumnSchema();
+        for(int kind : kinds){
+            switch(kind){
+                case KIND_NUMBER:
+                    columnSchema.addColumn(ColumnType.NUMBER);
+                    break;
+                case KIND_DATE:
+                    columnSchema.addColumn(ColumnType.DATE, DATE_FORMAT);
+                    break;
+                case KIND_TIMESTAMP:
+                    columnSchema.addColumn(ColumnType.DATE, TIMESTAMP_FORMAT);
+                    break;
+                case KIND_BOOLEAN:
+                    columnSchema.addColumn(ColumnType.BOOLEAN);
+                    break;
+                default:
+                    columnSchema.addColumn(ColumnType.TEXT);
+            }
+        }
+        return columnSchema;
+    }
+
+    /**
+     * ResultSetMetaData의 Column Label로 Bold Header Row를 입력한다.
+     */
+    private void writeHeader(final ResultSetMetaData metaData, final int columnCount) throws SQLException{
+        final ColumnSchema headerSchema = new ColumnSchema();
+        final Object[] labels = new Object[columnCount];
+        for(int i = 0; i < columnCount; i++){
+            headerSchema.addColumn(ColumnType.TEXT).setBold(true);
+            labels[i] = metaData.getColumnLabel(i + 1);
+        }
+        sheetController.appendRow(new RowWriter(sheetController.getExcelController(), headerSchema), labels);
+    }
+
+    /**
+     * resultSet의 현재 Row에서 columnIndex Column의 값을 읽어 cell에 입력한다.
+     * 숫자는 boxing 없이 double로 읽는다.
+     * @param resultSet
+     * @param columnIndex ResultSet의 Column 번호(1부터 시작)
+     * @param kind 값을 읽는 방식
+     * @param cell 입력할 Cell
+     * @throws SQLException
+     */
+    private static void writeValue(final ResultSet resultSet, final int columnIndex, final int kind, final Cell cell) throws SQLException{
+        switch(kind){
+            case KIND_NUMBER: {
+                final double value = resultSet.getDouble(columnIndex);
+                if(!resultSet.wasNull()){
+                    cell.setCellValue(value);
+                }
+                break;
+            }
+            case KIND_DATE: {
+                final Date value = resultSet.getDate(columnIndex);
+                if(value != null){
+                    cell.setCellValue(value.toLocalDate());
+                }
+                break;
+            }
+            case KIND_TIMESTAMP: {
+                final Timestamp value = resultSet.getTimestamp(columnIndex);
+                if(value != null){
+                    cell.setCellValue(value.toLocalDateTime());
+                }
+                break;
+            }
+            case KIND_BOOLEAN: {
+                final boolean value = resultSet.getBoolean(columnIndex);
+                if(!resultSet.wasNull()){
+                    cell.setCellValue(value);
+                }
+                break;
+            }
+            default: {
+                final String value = resultSet.getString(columnIndex);
+                if(value != null){
+                    cell.setCellValue(value);
+                }
+            }
+        }
+    }
+}
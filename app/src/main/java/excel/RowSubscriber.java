@@ -0,0 +1,95 @@
+package excel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ **<pre>
+ **Flow.Publisher에서 받은 Object[]를 SheetController의 마지막 Row 다음부터 한 줄씩 추가하는 Subscriber.
+ **SheetController.createRowSubscriber()로 생성한다.
+ **Row는 batchSize개씩 요청(request)하고, 요청한 Row를 모두 입력한 뒤 다음 batch를 요청하므로
+ **Publisher 쪽에 쌓이는 Row는 batchSize개를 넘지 않는다.
+ **Streaming 방식의 ExcelController와 함께 사용하면 Workbook 쪽의 메모리도 rowAccessWindowSize로 제한된다.
+ **Publisher가 완료되면 finishWorksheet()를 호출하고 getCompletion()이 완료된다.
+ **Column의 CellStyle은 생성할 때 호출한 Thread에서 미리 찾아두지만, Row 입력과 finishWorksheet()는 Publisher의 Thread에서
+ **Workbook 전체가 공유하는 문자열, Style 등을 변경할 수 있으므로,
+ **getCompletion()이 완료되기 전에는 다른 Thread에서 이 ExcelController(다른 Sheet 포함)를 사용하면 안 된다.
+ * </pre>
+ */
+public class RowSubscriber implements Flow.Subscriber<Object[]> {
+    private final SheetController sheetController;
+    private final RowWriter rowWriter;
+    private final int batchSize;
+    private final CompletableFuture<SheetController> completion = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+    private int remainingInBatch = 0; // 현재 batch에서 아직 받지 않은 Row 수
+
+    protected RowSubscriber(final SheetController sheetController, final ColumnSchema columnSchema, final int batchSize){
+        if(batchSize < 1){
+            throw new IllegalArgumentException("batchSize는 1 이상이어야 합니다.");
+        }
+        this.sheetController = sheetController;
+        this.rowWriter = new RowWriter(sheetController.getExcelController(), columnSchema);
+        this.rowWriter.resolveAllColumns(); // Publisher의 Thread에서 ExcelController의 CellStyle을 만들지 않도록 미리 찾는다.
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 모든 Row가 입력되고 finishWorksheet()까지 끝나면 완료되는 CompletableFuture를 반환한다.
+     * Publisher가 오류를 전달했거나 Row 입력 중 예외가 발생하면 그 예외로 완료된다.
+     * @return SheetController로 완료되는 CompletableFuture
+     */
+    public CompletableFuture<SheetController> getCompletion(){
+        return completion;
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        if(this.subscription != null || completion.isDone()){
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        requestBatch();
+    }
+
+    @Override
+    public void onNext(final Object[] values) {
+        if(completion.isDone()){
+            return;
+        }
+        try {
+            sheetController.appendRow(rowWriter, values);
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            completion.completeExceptionally(e);
+            return;
+        }
+        if(--remainingInBatch == 0){
+            requestBatch();
+        }
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        completion.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if(completion.isDone()){
+            return;
+        }
+        try {
+            sheetController.finishWorksheet();
+            completion.complete(sheetController);
+        } catch (RuntimeException e) {
+            completion.completeExceptionally(e);
+        }
+    }
+
+    private void requestBatch(){
+        remainingInBatch = batchSize;
+        subscription.request(batchSize);
+    }
+}
@@ -0,0 +1,249 @@
+package excel;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+
+/**
+ **<pre>
+ **SheetController.appendRows()에서 Object[] 한 줄을 POI Row에 바로 입력한다.
+ **CellController를 만들지 않고, Column마다 한 번만 공유 CellStyle을 찾아 모든 Cell에 적용한다.
+ **SheetController.writeColumn()에서는 Column의 공유 CellStyle을 찾는 데 사용된다.
+ **ColumnSchema에 없는 Column은 기본 Style의 AUTO Column으로 입력된다.
+ **CellStyle은 처음 필요할 때 ExcelController에서 찾지만, resolveAllColumns()를 호출하면 미리 모두 찾아두고
+ **이후에는 ExcelController를 변경하지 않는다.(RowSubscriber에서 사용)
+ * </pre>
+ */
+final class RowWriter {
+    private static final int DEFAULT_DATE_FORMAT = 0xe; // BuiltinFormats "m/d/yy"
+
+    private final ExcelController excelController;
+    private final ColumnSchema columnSchema;
+    private ColumnType[] columnTypes = new ColumnType[0];
+    private CellStyle[] cellStyles = new CellStyle[0];
+    private CellStyle[] dateCellStyles = new CellStyle[0]; // AUTO Column에 날짜 값이 입력될 때 사용한다.(처음 사용할 때 생성)
+    private CellStyle defaultCellStyle; // ColumnSchema에 없는 Column의 CellStyle(resolveAllColumns()에서 생성)
+    private CellStyle defaultDateCellStyle; // ColumnSchema에 없는 Column에 날짜 값이 입력될 때의 CellStyle(resolveAllColumns()에서 생성)
+
+    RowWriter(final ExcelController excelController, final ColumnSchema columnSchema){
+        this.excelController = excelController;
+        this.columnSchema = columnSchema;
+    }
+
+    /**
+     **<pre>
+     **ColumnSchema의 모든 Column과 ColumnSchema에 없는 Column에서 사용할 CellStyle을 미리 찾아둔다.
+     **AUTO Column의 날짜용 CellStyle도 함께 만들어두므로, 이후 writeRow()는 ExcelController의 CellStyle, Font를 변경하지 않는다.
+     * </pre>
+     */
+    void resolveAllColumns(){
+        resolveColumns(columnSchema.getColumnCount());
+        for(int colIndex = 0; colIndex < columnTypes.length; colIndex++){
+            if(columnTypes[colIndex] == ColumnType.AUTO){
+                getDateCellStyle(colIndex);
+            }
+        }
+        defaultCellStyle = excelController.getCellStyle(CellStyleKey.createDefault());
+        final CellStyleKey dateCellStyleKey = CellStyleKey.createDefault();
+        dateCellStyleKey.setDataFormat(DEFAULT_DATE_FORMAT);
+        defaultDateCellStyle = excelController.getCellStyle(dateCellStyleKey);
+    }
+
+    /**
+     * values를 row의 0번 Column부터 순서대로 입력한다.
+     * @param row 입력할 Row
+     * @param values Column 순서대로의 값
+     */
+    void writeRow(final Row row, final Object[] values){
+        if(values.length > columnTypes.length){
+            resolveColumns(values.length);
+        }
+        for(int colIndex = 0; colIndex < values.length; colIndex++){
+            writeCell(row.createCell(colIndex), colIndex, values[colIndex]);
+        }
+    }
+
+    /**
+     * Column의 공유 CellStyle을 반환한다.
+     * @param colIndex Column의 번호(0부터 시작).
+     * @return Column의 공유 CellStyle
+     */
+    CellStyle getCellStyle(final int colIndex){
+        if(colIndex >= columnTypes.length){
+            resolveColumns(colIndex + 1);
+        }
+        return cellStyles[colIndex];
+    }
+
+    /**
+     * 숫자를 입력할 Column의 공유 CellStyle을 반환한다.
+     * Column의 타입이 AUTO, NUMBER가 아니면 IllegalArgumentException 예외를 발생한다.
+     * @param colIndex Column의 번호(0부터 시작).
+     * @return Column의 공유 CellStyle
+     */
+    CellStyle getNumberCellStyle(final int colIndex){
+        checkColumnType(colIndex, ColumnType.NUMBER);
+        return cellStyles[colIndex];
+    }
+
+    /**
+     * 날짜를 입력할 Column의 공유 CellStyle을 반환한다.
+     * Column의 타입이 AUTO, DATE가 아니면 IllegalArgumentException 예외를 발생한다.
+     * @param colIndex Column의 번호(0부터 시작).
+     * @return Column의 날짜용 공유 CellStyle
+     */
+    CellStyle getDateColumnCellStyle(final int colIndex){
+        checkColumnType(colIndex, ColumnType.DATE);
+        return columnTypes[colIndex] == ColumnType.DATE ? cellStyles[colIndex] : getDateCellStyle(colIndex);
+    }
+
+    private void checkColumnType(final int colIndex, final ColumnType columnType){
+        if(colIndex >= columnTypes.length){
+            resolveColumns(colIndex + 1);
+        }
+        if(columnTypes[colIndex] != ColumnType.AUTO && columnTypes[colIndex] != columnType){
+            throw new IllegalArgumentException("Column " + colIndex + "은(는) " + columnTypes[colIndex] + " 타입이므로 " + columnType + " 값을 입력할 수 없습니다.");
+        }
+    }
+
+    /**
+     * columnCount개의 Column까지 타입과 공유 CellStyle을 준비한다.
+     * @param columnCount
+     */
+    private void resolveColumns(final int columnCount){
+        final int resolvedCount = columnTypes.length;
+        columnTypes = Arrays.copyOf(columnTypes, columnCount);
+        cellStyles = Arrays.copyOf(cellStyles, columnCount);
+        dateCellStyles = Arrays.copyOf(dateCellStyles, columnCount);
+        for(int colIndex = resolvedCount; colIndex < columnCount; colIndex++){
+            final ColumnSchema.Column column = columnSchema.getColumn(colIndex);
+            columnTypes[colIndex] = column == null ? ColumnType.AUTO : column.getColumnType();
+            if(column == null && defaultCellStyle != null){
+                cellStyles[colIndex] = defaultCellStyle;
+                dateCellStyles[colIndex] = defaultDateCellStyle;
+                continue;
+            }
+            final CellStyleKey cellStyleKey = createCellStyleKey(column);
+            if(columnTypes[colIndex] == ColumnType.DATE && (column == null || column.getDataFormat() == null)){
+                cellStyleKey.setDataFormat(DEFAULT_DATE_FORMAT);
+            }
+            cellStyles[colIndex] = excelController.getCellStyle(cellStyleKey);
+        }
+    }
+
+    /**
+     * column의 Style로 CellStyleKey를 만든다.
+     * ColumnSchema는 여러 Workbook에서 재사용될 수 있으므로 Key를 복사하여 Font index를 채운다.
+     * @param column null이면 기본 Style
+     * @return 새 CellStyleKey
+     */
+    private CellStyleKey createCellStyleKey(final ColumnSchema.Column column){
+        if(column == null){
+            return CellStyleKey.createDefault();
+        }
+        final CellStyleKey cellStyleKey = column.getCellStyleKey().copy();
+        cellStyleKey.setFontIndex(excelController.getFont(column.getFontKey()).getIndex());
+        if(column.getDataFormat() != null){
+            cellStyleKey.setDataFormat(excelController.getDataFormat(column.getDataFormat()));
+        }
+        return cellStyleKey;
+    }
+
+    /**
+     * AUTO Column에 날짜 값이 입력될 때 사용할 CellStyle을 반환한다.
+     * Column에 DataFormat이 지정되어 있으면 Column의 CellStyle을 그대로 사용한다.
+     * @param colIndex
+     * @return 날짜용 CellStyle
+     */
+    private CellStyle getDateCellStyle(final int colIndex){
+        CellStyle dateCellStyle = dateCellStyles[colIndex];
+        if(dateCellStyle == null){
+            final ColumnSchema.Column column = columnSchema.getColumn(colIndex);
+            if(column != null && column.getDataFormat() != null){
+                dateCellStyle = cellStyles[colIndex];
+            }else{
+                final CellStyleKey cellStyleKey = createCellStyleKey(column);
+                cellStyleKey.setDataFormat(DEFAULT_DATE_FORMAT);
+                dateCellStyle = excelController.getCellStyle(cellStyleKey);
+            }
+            dateCellStyles[colIndex] = dateCellStyle;
+        }
+        return dateCellStyle;
+    }
+
+    private void writeCell(final Cell cell, final int colIndex, final Object value){
+        cell.setCellStyle(cellStyles[colIndex]);
+        if(value == null){
+            return;
+        }
+        final ColumnType columnType = columnTypes[colIndex];
+        switch(columnType){
+            case TEXT:
+                cell.setCellValue(value.toString());
+                break;
+            case NUMBER:
+                if(!(value instanceof Number)){
+                    throw createTypeMismatchException(cell, columnType, value);
+                }
+                cell.setCellValue(((Number)value).doubleValue());
+                break;
+            case DATE:
+                if(!setDateValue(cell, value)){
+                    throw createTypeMismatchException(cell, columnType, value);
+                }
+                break;
+            case BOOLEAN:
+                if(!(value instanceof Boolean)){
+                    throw createTypeMismatchException(cell, columnType, value);
+                }
+                cell.setCellValue((Boolean)value);
+                break;
+            default:
+                if(value instanceof String){
+                    cell.setCellValue((String)value);
+                }else if(value instanceof Number){
+                    cell.setCellValue(((Number)value).doubleValue());
+                }else if(value instanceof Boolean){
+                    cell.setCellValue((Boolean)value);
+                }else if(setDateValue(cell, value)){
+                    cell.setCellStyle(getDateCellStyle(colIndex));
+                }else{
+                    cell.setCellValue(value.toString());
+                }
+        }
+    }
+
+    /**
+     * value가 날짜 타입이면 cell에 입력한다.
+     * @param cell
+     * @param value
+     * @return 날짜 타입이면 true
+     */
+    private static boolean setDateValue(final Cell cell, final Object value){
+        if(value instanceof LocalDate){
+            cell.setCellValue((LocalDate)value);
+        }else if(value instanceof LocalDateTime){
+            cell.setCellValue((LocalDateTime)value);
+        }else if(value instanceof Date){
+            cell.setCellValue((Date)value);
+        }else if(value instanceof Calendar){
+            cell.setCellValue((Calendar)value);
+        }else{
+            return false;
+        }
+        return true;
+    }
+
+    private static IllegalArgumentException createTypeMismatchException(final Cell cell, final ColumnType columnType, final Object value){
+        return new IllegalArgumentException(
+            "Column " + cell.getColumnIndex() + "은(는) " + columnType + " 타입이지만 입력된 값은 " + value.getClass().getName() + "입니다. "
+            + "(Row: " + cell.getRowIndex() + ")"
+        );
+    }
+}
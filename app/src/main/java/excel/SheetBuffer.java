@@ -0,0 +1,127 @@
+package excel;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.ss.util.CellRangeAddress;
+
+/**
+ **<pre>
+ **ExcelController.addSheetAsync()에서 Sheet 하나의 내용을 다른 Thread에서 준비하기 위한 버퍼.
+ **Workbook에 접근하지 않고 값과 ColumnSchema만 보관하므로, Sheet마다 별도의 Thread에서 채워도 안전하다.
+ **버퍼의 내용은 Sheet가 선택되거나 Workbook을 출력할 때 Sheet 순서대로 Workbook에 입력된다.
+ **입력은 SheetController.appendRows()와 같은 방식으로 이루어지므로 CellController는 만들어지지 않는다.
+ **하나의 SheetBuffer는 하나의 Thread에서만 사용해야 한다.
+ * </pre>
+ */
+public class SheetBuffer {
+    private String sheetName;
+    private ColumnSchema columnSchema = new ColumnSchema();
+    private List<Object[]> rowList = new ArrayList<>();
+    private final Map<Integer, Double> columnWidthMap = new LinkedHashMap<>(); // key: columnIndex, value: columnWidth
+    private final List<CellRangeAddress> mergedRegionList = new ArrayList<>();
+
+    protected SheetBuffer(){
+    }
+
+    /**
+     * Sheet의 이름을 설정한다.
+     * @param sheetName Sheet의 이름
+     * @return this
+     */
+    public SheetBuffer setSheetName(final String sheetName){
+        this.sheetName = sheetName;
+        return this;
+    }
+
+    /**
+     * Row를 입력할 때 사용할 ColumnSchema를 설정한다.
+     * 설정하지 않으면 값은 ColumnType.AUTO로 입력된다.
+     * @param columnSchema Column들의 타입, Style, DataFormat
+     * @return this
+     */
+    public SheetBuffer setColumnSchema(final ColumnSchema columnSchema){
+        this.columnSchema = columnSchema;
+        return this;
+    }
+
+    /**
+     * Row 하나를 추가한다.
+     * values 배열은 복사하지 않고 보관하므로, 추가한 뒤에 수정하면 안 된다.
+     * @param values Column 순서대로의 값
+     * @return this
+     */
+    public SheetBuffer appendRow(final Object... values){
+        rowList.add(values);
+        return this;
+    }
+
+    /**
+     * Row들을 추가한다.
+     * @param rows 추가할 Row들의 값
+     * @return this
+     */
+    public SheetBuffer appendRows(final Iterable<Object[]> rows){
+        for(Object[] values : rows){
+            rowList.add(values);
+        }
+        return this;
+    }
+
+    /**
+     * 지금까지 추가된 Row 수를 반환한다.
+     * @return Row 수
+     */
+    public int getRowCount(){
+        return rowList.size();
+    }
+
+    /**
+     * columnIndex번째 Column의 Width를 설정한다.
+     * @param columnIndex 변경할 Column의 번호(0부터 시작).
+     * @param columnWidth Excel의 Column Width 설정 단위랑 같다.
+     * @return this
+     */
+    public SheetBuffer setColumnWidth(final int columnIndex, final double columnWidth){
+        columnWidthMap.put(columnIndex, columnWidth);
+        return this;
+    }
+
+    /**
+     * Cell을 Merge한다.
+     * Row 번호는 Sheet의 Row 번호이며, 새 Sheet에서는 추가된 순서(0부터 시작)와 같다.
+     * @param startRowIndex 시작 Row Index(0부터 시작)
+     * @param endRowIndex 종료 Row Index(0부터 시작)
+     * @param startColIndex 시작 Col Index(0부터 시작)
+     * @param endColInex 종료 Col Index(0부터 시작)
+     * @return this
+     */
+    public SheetBuffer mergedRegion(final int startRowIndex, final int endRowIndex, final int startColIndex, final int endColInex){
+        mergedRegionList.add(new CellRangeAddress(startRowIndex, endRowIndex, startColIndex, endColInex));
+        return this;
+    }
+
+    /**
+     * 버퍼의 내용을 sheetController에 입력한다.
+     * Workbook을 작업하는 Thread에서 호출되며, 입력한 뒤 보관하던 Row는 해제한다.
+     * @param sheetController 입력할 Sheet
+     */
+    void mergeInto(final SheetController sheetController){
+        if(sheetName != null){
+            sheetController.setSheetName(sheetName);
+        }
+        for(Map.Entry<Integer, Double> entry : columnWidthMap.entrySet()){
+            sheetController.setColumnWidth(entry.getKey(), entry.getValue());
+        }
+        sheetController.appendRows(columnSchema, rowList);
+        rowList = null;
+        for(CellRangeAddress mergedRegion : mergedRegionList){
+            sheetController.mergedRegion(
+                mergedRegion.getFirstRow(), mergedRegion.getLastRow(),
+                mergedRegion.getFirstColumn(), mergedRegion.getLastColumn()
+            );
+        }
+    }
+}
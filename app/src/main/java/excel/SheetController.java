@@ -1,26 +1,74 @@
 package excel;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Drawing;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
 
 public class SheetController {
+    private static final int ROW_HEIGHT_BATCH_SIZE = 4096; // 지연된 Row Height를 나누어 계산할 때 한 작업의 최소 Cell 수
+
     private final ExcelController excelController;
     private final Workbook workbook;
     private final Sheet worksheet;
+    private Drawing<?> workdrawing;
 
-    private final Map<String, CellController> cellControllerMap = new HashMap<>();
+    private final LongKeyMap<CellController> cellControllerMap = new LongKeyMap<>(); // key: getCellControllerKey(rowIndex, colIndex)
+    private final List<CellController> pendingCellControllerList = new ArrayList<>(); // 아직 적용되지 않은 작업이 있는 CellController
+    private final Set<CellController> rowHeightCellControllerSet = new LinkedHashSet<>(); // Row Height를 맞출 CellController(setDeferredRowHeight())
+    private final TreeMap<Integer, Integer> releasedRowHeightMap = new TreeMap<>(); // key: rowIndex, value: Row Height를 맞추기 전에 해제된 CellController에 필요한 높이(Pixels)
     private CellController workcellController;
+    private CellRetentionPolicy cellRetentionPolicy = CellRetentionPolicy.KEEP_ALL;
+    private int retainedRowCount = 0; // KEEP_LAST_ROWS에서 보관할 Row 수
+    private int lastSelectedRowIndex = -1; // KEEP_LAST_ROWS에서 지금까지 선택된 가장 큰 Row 번호
+    private int retainedFromRowIndex = 0; // 이 Row 이전의 CellController는 모두 해제되었다.
+    private CompletableFuture<Void> backgroundFlush; // finishWorksheet()에서 시작된 Row flush 작업
+    private int lastRowIndex; // 지금까지 생성된 가장 큰 Row 번호, 없으면 -1
+    private CompletableFuture<SheetBuffer> sheetBufferFuture; // ExcelController.addSheetAsync()에서 채워지는 버퍼
 
     protected SheetController(ExcelController excelController){
+        this(excelController, excelController.getWorkbook().createSheet());
+    }
+
+    /**
+     * 이미 Workbook에 있는 worksheet의 SheetController를 생성한다.(WorkbookTemplate에서 사용)
+     * Streaming 방식이면 worksheet에 이미 있는 Row는 수정할 수 없고, 그 다음 Row부터 추가할 수 있다.
+     * @param excelController
+     * @param worksheet Workbook에 있는 Sheet
+     */
+    protected SheetController(ExcelController excelController, Sheet worksheet){
         this.excelController = excelController;
         workbook = excelController.getWorkbook();
-        worksheet = workbook.createSheet();
+        this.worksheet = worksheet;
+        if(worksheet instanceof SXSSFSheet){
+            // SXSSFSheet는 template에서 읽은 Row를 알지 못하므로 내부 XSSFSheet에서 읽는다.
+            lastRowIndex = excelController.getXSSFWorkbook().getSheet(worksheet.getSheetName()).getLastRowNum();
+        }else{
+            lastRowIndex = worksheet.getLastRowNum();
+        }
+        if(excelController.isStreaming()){
+            setCellRetentionPolicy(CellRetentionPolicy.KEEP_LAST_ROWS, excelController.getRowAccessWindowSize());
+        }
     }
 
     /**
@@ -31,12 +79,21 @@ public class SheetController {
         return worksheet;
     }
 
+    /**
+     * worksheet의 Drawing을 반환한다.
+     * Drawing이 없을 경우 새로 생성 후 반환한다.
+     * Streaming 방식에서도 Drawing은 Row와 달리 flush되지 않으므로 언제든 사용할 수 있다.
+     * @return Drawing
+     */
     protected Drawing<?> getWorkdrawing(){
-        Drawing<?> drawing = worksheet.getDrawingPatriarch();
-        if(drawing == null){
-            drawing = worksheet.createDrawingPatriarch();
+        if(workdrawing == null){
+            workdrawing = worksheet.getDrawingPatriarch();
+            if(workdrawing == null || worksheet instanceof SXSSFSheet){
+                // SXSSFSheet.getDrawingPatriarch()는 내부 XSSFDrawing을 반환하므로 SXSSFDrawing을 새로 받는다.
+                workdrawing = worksheet.createDrawingPatriarch();
+            }
         }
-        return drawing;
+        return workdrawing;
     }
 
     /**
@@ -159,21 +216,51 @@ public class SheetController {
      * @return rowIndex에 해당하는 Row
      */
     protected Row getRow(final int rowIndex){
+        awaitBackgroundFlush();
         Row row = worksheet.getRow(rowIndex);
         if(row == null){
+            checkRowWritable(rowIndex);
+            if(excelController.isStreaming()){
+                // Row가 생성되면 window를 벗어난 Row는 flush되므로, 그 전에 Row Height와 남은 작업을 적용한다.
+                fitRowHeightsBefore(rowIndex - excelController.getRowAccessWindowSize() + 1);
+                flushPendingCellsBefore(rowIndex - excelController.getRowAccessWindowSize() + 1);
+            }
             row = worksheet.createRow(rowIndex);
+            if(rowIndex > lastRowIndex){
+                lastRowIndex = rowIndex;
+            }
         }
         return row;
     }
 
+    /**
+     * rowIndex에 해당하는 Row를 수정할 수 있는지 확인한다.
+     * Streaming 방식에서 이미 임시 파일로 flush된 Row이면 IllegalStateException 예외를 발생한다.
+     * @param rowIndex Row의 번호(0부터 시작).
+     */
+    protected void checkRowWritable(final int rowIndex) throws IllegalStateException{
+        awaitBackgroundFlush();
+        if(worksheet instanceof SXSSFSheet){
+            final int lastFlushedRowIndex = ((SXSSFSheet)worksheet).getLastFlushedRowNum();
+            if(rowIndex <= lastFlushedRowIndex){
+                throw new IllegalStateException(
+                    "Row " + rowIndex + "은(는) 이미 flush되어 수정할 수 없습니다. "
+                    + "(Sheet: " + getSheetName() + ", 마지막으로 flush된 Row: " + lastFlushedRowIndex
+                    + ", rowAccessWindowSize: " + excelController.getRowAccessWindowSize() + ")"
+                );
+            }
+        }
+    }
+
     /**
      * cellControllerMap에 쓰이는 Key를 생성한다.
+     * 상위 32bit는 rowIndex, 하위 32bit는 colIndex이다.
      * @param rowIndex Row의 번호(0부터 시작).
      * @param colInex Column의 번호(0부터 시작).
-     * @return "R{rowIndex}C{colIndex}"
+     * @return (long)rowIndex << 32 | colIndex
      */
-    private String getCellControllerKey(final int rowIndex, final int colInex){
-        return "R" + rowIndex + "C" + colInex;
+    static long getCellControllerKey(final int rowIndex, final int colInex){
+        return (long)rowIndex << 32 | (colInex & 0xFFFFFFFFL);
     }
 
     /**
@@ -183,11 +270,16 @@ public class SheetController {
      * @return CellController
      */
     public CellController selectCell(final int rowIndex, final int colIndex){
-        String cellControllerKey = getCellControllerKey(rowIndex, colIndex);
+        final long cellControllerKey = getCellControllerKey(rowIndex, colIndex);
 
-        if(cellControllerMap.containsKey(cellControllerKey)){
-            return cellControllerMap.get(cellControllerKey);
+        CellController cellController = cellControllerMap.get(cellControllerKey);
+        if(cellController != null){
+            return cellController;
         }else{
+            if(cellRetentionPolicy == CellRetentionPolicy.KEEP_LAST_ROWS && rowIndex > lastSelectedRowIndex){
+                lastSelectedRowIndex = rowIndex;
+                releaseOldRows();
+            }
             workcellController = new CellController(this, rowIndex, colIndex);
             cellControllerMap.put(cellControllerKey, workcellController);
             return workcellController;
@@ -195,6 +287,510 @@ public class SheetController {
     }
     
 
+    /**
+     **<pre>
+     **rows를 Sheet의 마지막 Row 다음부터 한 줄씩 추가한다.
+     **배열의 값은 0번 Column부터 순서대로 입력되며, 값의 Class에 따라 입력된다.(ColumnType.AUTO)
+     **CellController를 만들지 않고 POI Row에 바로 입력하므로, 추가된 Cell은 기본 Style을 공유한다.
+     * </pre>
+     * @param rows 추가할 Row들의 값
+     * @return this
+     */
+    public SheetController appendRows(final Iterable<Object[]> rows){
+        return appendRows(new ColumnSchema(), rows);
+    }
+
+    /**
+     **<pre>
+     **rows를 Sheet의 마지막 Row 다음부터 한 줄씩 추가한다.
+     **배열의 값은 0번 Column부터 순서대로 columnSchema의 타입과 Style로 입력된다.
+     **CellController를 만들지 않고 POI Row에 바로 입력하며, 같은 Column의 Cell은 하나의 공유 CellStyle을 사용한다.
+     **columnSchema보다 긴 배열의 나머지 값은 기본 Style의 AUTO Column으로 입력된다.
+     **값이 Column의 타입과 맞지 않으면 IllegalArgumentException 예외를 발생한다.
+     * </pre>
+     * @param columnSchema Column들의 타입, Style, DataFormat
+     * @param rows 추가할 Row들의 값
+     * @return this
+     */
+    public SheetController appendRows(final ColumnSchema columnSchema, final Iterable<Object[]> rows){
+        final RowWriter rowWriter = new RowWriter(excelController, columnSchema);
+        for(Object[] values : rows){
+            appendRow(rowWriter, values);
+        }
+        return this;
+    }
+
+    /**
+     * values를 Sheet의 마지막 Row 다음 Row에 입력한다.
+     * @param rowWriter Column들의 공유 CellStyle을 가진 RowWriter
+     * @param values Column 순서대로의 값
+     */
+    void appendRow(final RowWriter rowWriter, final Object[] values){
+        rowWriter.writeRow(appendEmptyRow(), values);
+    }
+
+    /**
+     * Sheet의 마지막 Row 다음에 빈 Row를 만든다.
+     * @return 새 Row
+     */
+    Row appendEmptyRow(){
+        return getRow(lastRowIndex + 1);
+    }
+
+    /**
+     * Flow.Publisher의 Row를 이 Sheet에 추가하는 RowSubscriber를 생성한다.
+     * 값은 ColumnType.AUTO로 입력된다.
+     * @param batchSize 한 번에 요청할 Row 수(1 이상)
+     * @return RowSubscriber
+     */
+    public RowSubscriber createRowSubscriber(final int batchSize){
+        return createRowSubscriber(new ColumnSchema(), batchSize);
+    }
+
+    /**
+     **<pre>
+     **Flow.Publisher의 Row를 이 Sheet에 추가하는 RowSubscriber를 생성한다.
+     **Row는 appendRows(columnSchema, rows)와 같은 방식으로 입력되고, batchSize개씩 요청된다.
+     **Column의 CellStyle은 이 메소드를 호출한 Thread에서 미리 만든다.
+     **getCompletion()이 완료될 때까지 다른 Thread에서 이 ExcelController를 사용하면 안 된다.
+     * </pre>
+     * @param columnSchema Column들의 타입, Style, DataFormat
+     * @param batchSize 한 번에 요청할 Row 수(1 이상)
+     * @return RowSubscriber
+     */
+    public RowSubscriber createRowSubscriber(final ColumnSchema columnSchema, final int batchSize){
+        return new RowSubscriber(this, columnSchema, batchSize);
+    }
+
+    /**
+     * values를 colIndex Column의 startRowIndex Row부터 아래로 입력한다.
+     * Cell들은 기본 Style의 공유 CellStyle을 사용한다.
+     * @param colIndex Column의 번호(0부터 시작).
+     * @param startRowIndex 시작 Row의 번호(0부터 시작).
+     * @param values 입력할 값
+     * @return this
+     */
+    public SheetController writeColumn(final int colIndex, final int startRowIndex, final double[] values){
+        return writeColumn(new ColumnSchema(), colIndex, startRowIndex, values);
+    }
+
+    /**
+     **<pre>
+     **values를 colIndex Column의 startRowIndex Row부터 아래로 입력한다.
+     **CellController를 만들지 않고, Cell들은 columnSchema의 colIndex번째 Column의 공유 CellStyle을 사용한다.
+     **Column의 타입이 AUTO, NUMBER가 아니면 IllegalArgumentException 예외를 발생한다.
+     **이미 선택된 CellController가 있는 Cell은 CellController가 해제되고, 다시 선택하면 입력된 값과 CellStyle로 새로 만들어진다.
+     **Streaming 방식에서는 window를 벗어난 Row가 flush되므로, 여러 Column은 writeColumns()로 Row 순서대로 입력한다.
+     * </pre>
+     * @param columnSchema Column들의 타입, Style, DataFormat
+     * @param colIndex Column의 번호(0부터 시작).
+     * @param startRowIndex 시작 Row의 번호(0부터 시작).
+     * @param values 입력할 값
+     * @return this
+     */
+    public SheetController writeColumn(final ColumnSchema columnSchema, final int colIndex, final int startRowIndex, final double[] values){
+        final CellStyle cellStyle = new RowWriter(excelController, columnSchema).getNumberCellStyle(colIndex);
+        for(int i = 0; i < values.length; i++){
+            final int rowIndex = startRowIndex + i;
+            getColumnCell(getRow(rowIndex), rowIndex, colIndex, cellStyle).setCellValue(values[i]);
+        }
+        return this;
+    }
+
+    /**
+     * values를 colIndex Column의 startRowIndex Row부터 아래로 입력한다.
+     * Cell들은 기본 Style의 공유 CellStyle을 사용한다.
+     * @param colIndex Column의 번호(0부터 시작).
+     * @param startRowIndex 시작 Row의 번호(0부터 시작).
+     * @param values 입력할 값
+     * @return this
+     */
+    public SheetController writeColumn(final int colIndex, final int startRowIndex, final long[] values){
+        return writeColumn(new ColumnSchema(), colIndex, startRowIndex, values);
+    }
+
+    /**
+     * values를 colIndex Column의 startRowIndex Row부터 아래로 입력한다.
+     * writeColumn(ColumnSchema, int, int, double[])과 같다.
+     * @param columnSchema Column들의 타입, Style, DataFormat
+     * @param colIndex Column의 번호(0부터 시작).
+     * @param startRowIndex 시작 Row의 번호(0부터 시작).
+     * @param values 입력할 값
+     * @return this
+     */
+    public SheetController writeColumn(final ColumnSchema columnSchema, final int colIndex, final int startRowIndex, final long[] values){
+        final CellStyle cellStyle = new RowWriter(excelController, columnSchema).getNumberCellStyle(colIndex);
+        for(int i = 0; i < values.length; i++){
+            final int rowIndex = startRowIndex + i;
+            getColumnCell(getRow(rowIndex), rowIndex, colIndex, cellStyle).setCellValue((double)values[i]);
+        }
+        return this;
+    }
+
+    /**
+     * values를 colIndex Column의 startRowIndex Row부터 아래로 입력한다.
+     * Cell들은 기본 Style의 공유 CellStyle을 사용한다.
+     * @param colIndex Column의 번호(0부터 시작).
+     * @param startRowIndex 시작 Row의 번호(0부터 시작).
+     * @param values 입력할 값
+     * @return this
+     */
+    public SheetController writeColumn(final int colIndex, final int startRowIndex, final int[] values){
+        return writeColumn(new ColumnSchema(), colIndex, startRowIndex, values);
+    }
+
+    /**
+     * values를 colIndex Column의 startRowIndex Row부터 아래로 입력한다.
+     * writeColumn(ColumnSchema, int, int, double[])과 같다.
+     * @param columnSchema Column들의 타입, Style, DataFormat
+     * @param colIndex Column의 번호(0부터 시작).
+     * @param startRowIndex 시작 Row의 번호(0부터 시작).
+     * @param values 입력할 값
+     * @return this
+     */
+    public SheetController writeColumn(final ColumnSchema columnSchema, final int colIndex, final int startRowIndex, final int[] values){
+        final CellStyle cellStyle = new RowWriter(excelController, columnSchema).getNumberCellStyle(colIndex);
+        for(int i = 0; i < values.length; i++){
+            final int rowIndex = startRowIndex + i;
+            getColumnCell(getRow(rowIndex), rowIndex, colIndex, cellStyle).setCellValue(values[i]);
+        }
+        return this;
+    }
+
+    /**
+     * values를 colIndex Column의 startRowIndex Row부터 아래로 입력한다.
+     * Cell들은 기본 날짜 형식(m/d/yy)의 공유 CellStyle을 사용한다.
+     * @param colIndex Column의 번호(0부터 시작).
+     * @param startRowIndex 시작 Row의 번호(0부터 시작).
+     * @param values 입력할 값, null이면 값 없이 CellStyle만 적용된다.
+     * @return this
+     */
+    public SheetController writeColumn(final int colIndex, final int startRowIndex, final LocalDate[] values){
+        return writeColumn(new ColumnSchema(), colIndex, startRowIndex, values);
+    }
+
+    /**
+     **<pre>
+     **values를 colIndex Column의 startRowIndex Row부터 아래로 입력한다.
+     **Column의 타입이 AUTO, DATE가 아니면 IllegalArgumentException 예외를 발생한다.
+     **Column에 DataFormat이 없으면 기본 날짜 형식(m/d/yy)이 사용된다.
+     **그 외에는 writeColumn(ColumnSchema, int, int, double[])과 같다.
+     * </pre>
+     * @param columnSchema Column들의 타입, Style, DataFormat
+     * @param colIndex Column의 번호(0부터 시작).
+     * @param startRowIndex 시작 Row의 번호(0부터 시작).
+     * @param values 입력할 값, null이면 값 없이 CellStyle만 적용된다.
+     * @return this
+     */
+    public SheetController writeColumn(final ColumnSchema columnSchema, final int colIndex, final int startRowIndex, final LocalDate[] values){
+        final CellStyle cellStyle = new RowWriter(excelController, columnSchema).getDateColumnCellStyle(colIndex);
+        for(int i = 0; i < values.length; i++){
+            final int rowIndex = startRowIndex + i;
+            final Cell cell = getColumnCell(getRow(rowIndex), rowIndex, colIndex, cellStyle);
+            if(values[i] == null){
+                cell.setBlank();
+            }else{
+                cell.setCellValue(values[i]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * columns를 startColIndex Column의 startRowIndex Row부터 입력한다.
+     * Cell들은 기본 Style의 공유 CellStyle을 사용한다.
+     * @param startColIndex 시작 Column의 번호(0부터 시작).
+     * @param startRowIndex 시작 Row의 번호(0부터 시작).
+     * @param columns Column별 값, columns[i]는 startColIndex + i Column에 입력된다.
+     * @return this
+     */
+    public SheetController writeColumns(final int startColIndex, final int startRowIndex, final double[]... columns){
+        return writeColumns(new ColumnSchema(), startColIndex, startRowIndex, columns);
+    }
+
+    /**
+     **<pre>
+     **columns를 startColIndex Column의 startRowIndex Row부터 입력한다.
+     **Column별 배열을 받지만 Row 순서대로 입력하므로 Streaming 방식에서도 사용할 수 있다.
+     **Column의 길이가 다르면 짧은 Column의 나머지 Cell은 입력하지 않는다.
+     **그 외에는 writeColumn(ColumnSchema, int, int, double[])과 같다.
+     * </pre>
+     * @param columnSchema Column들의 타입, Style, DataFormat
+     * @param startColIndex 시작 Column의 번호(0부터 시작).
+     * @param startRowIndex 시작 Row의 번호(0부터 시작).
+     * @param columns Column별 값, columns[i]는 startColIndex + i Column에 입력된다.
+     * @return this
+     */
+    public SheetController writeColumns(final ColumnSchema columnSchema, final int startColIndex, final int startRowIndex, final double[]... columns){
+        final RowWriter rowWriter = new RowWriter(excelController, columnSchema);
+        final CellStyle[] cellStyles = new CellStyle[columns.length];
+        int rowCount = 0;
+        for(int i = 0; i < columns.length; i++){
+            cellStyles[i] = rowWriter.getNumberCellStyle(startColIndex + i);
+            rowCount = Math.max(rowCount, columns[i].length);
+        }
+        for(int r = 0; r < rowCount; r++){
+            final int rowIndex = startRowIndex + r;
+            final Row row = getRow(rowIndex);
+            for(int i = 0; i < columns.length; i++){
+                if(r < columns[i].length){
+                    getColumnCell(row, rowIndex, startColIndex + i, cellStyles[i]).setCellValue(columns[i][r]);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * writeColumn()에서 값을 입력할 Cell을 준비한다.
+     * Cell에 CellController가 있으면 남은 작업을 적용한 뒤 해제하고, cellStyle을 적용한다.
+     * @param row Cell이 있는 Row
+     * @param rowIndex Row의 번호(0부터 시작).
+     * @param colIndex Column의 번호(0부터 시작).
+     * @param cellStyle 적용할 공유 CellStyle
+     * @return Cell
+     */
+    private Cell getColumnCell(final Row row, final int rowIndex, final int colIndex, final CellStyle cellStyle){
+        if(cellControllerMap.size() > 0){
+            final CellController cellController = cellControllerMap.remove(getCellControllerKey(rowIndex, colIndex));
+            if(cellController != null){
+                if(cellController.isPending()){
+                    cellController.flush();
+                }
+                rowHeightCellControllerSet.remove(cellController); // 값을 덮어쓰므로 이어 붙이던 Text는 Row Height에 반영하지 않는다.
+            }
+        }
+        Cell cell = row.getCell(colIndex);
+        if(cell == null){
+            cell = row.createCell(colIndex);
+        }
+        cell.setCellStyle(cellStyle);
+        return cell;
+    }
+
+    /**
+     * CellController 보관 정책을 설정한다.
+     * KEEP_LAST_ROWS는 보관할 Row 수가 필요하므로 setCellRetentionPolicy(policy, retainedRowCount)를 사용한다.
+     * @param cellRetentionPolicy CellController 보관 정책
+     * @return this
+     */
+    public SheetController setCellRetentionPolicy(final CellRetentionPolicy cellRetentionPolicy){
+        if(cellRetentionPolicy == CellRetentionPolicy.KEEP_LAST_ROWS){
+            throw new IllegalArgumentException("KEEP_LAST_ROWS는 보관할 Row 수를 함께 지정해야 합니다.");
+        }
+        return setCellRetentionPolicy(cellRetentionPolicy, 0);
+    }
+
+    /**
+     **<pre>
+     **CellController 보관 정책을 설정한다.
+     **KEEP_LAST_ROWS이면 마지막으로 선택한 Row부터 retainedRowCount개의 Row에 있는 CellController를 보관한다.
+     **오래된 Row의 CellController는 선택이 진행되면서 한꺼번에 해제되므로, 실제로는 최대 retainedRowCount의 2배까지 보관될 수 있다.
+     * </pre>
+     * @param cellRetentionPolicy CellController 보관 정책
+     * @param retainedRowCount KEEP_LAST_ROWS에서 보관할 Row 수(1 이상)
+     * @return this
+     */
+    public SheetController setCellRetentionPolicy(final CellRetentionPolicy cellRetentionPolicy, final int retainedRowCount){
+        if(cellRetentionPolicy == CellRetentionPolicy.KEEP_LAST_ROWS && retainedRowCount < 1){
+            throw new IllegalArgumentException("retainedRowCount는 1 이상이어야 합니다.");
+        }
+        this.cellRetentionPolicy = cellRetentionPolicy;
+        this.retainedRowCount = retainedRowCount;
+        return this;
+    }
+
+    /**
+     * KEEP_LAST_ROWS에서 보관 범위를 벗어난 Row의 CellController를 해제한다.
+     * 매번 해제하지 않고, 보관 범위가 retainedRowCount만큼 이동했을 때 한꺼번에 해제한다.
+     */
+    private void releaseOldRows(){
+        final int releaseBeforeRowIndex = lastSelectedRowIndex - retainedRowCount + 1;
+        if(releaseBeforeRowIndex - retainedFromRowIndex < retainedRowCount){
+            return;
+        }
+        final long releaseBeforeKey = getCellControllerKey(releaseBeforeRowIndex, 0);
+        final int releasedCount = cellControllerMap.removeIf(key -> key < releaseBeforeKey, cellController -> {
+            cellController.flush();
+            releaseRowHeightCellController(cellController);
+        });
+        if(releasedCount > 0){
+            pendingCellControllerList.removeIf(cellController -> !cellController.isPending());
+        }
+        retainedFromRowIndex = releaseBeforeRowIndex;
+    }
+
+    /**
+     * CellController의 작업이 끝났을 때 호출된다.
+     * 아직 적용되지 않은 작업을 적용하고, DROP_ON_FINISH이면 CellController를 해제한다.
+     * @param cellController
+     */
+    protected void finishCellController(final CellController cellController){
+        if(cellController.isPending()){
+            cellController.flush();
+            removePendingCellController(cellController);
+        }
+        if(cellRetentionPolicy == CellRetentionPolicy.DROP_ON_FINISH){
+            cellControllerMap.remove(getCellControllerKey(cellController.getRowIndex(), cellController.getColIndex()));
+            releaseRowHeightCellController(cellController);
+        }
+    }
+
+    /**
+     * 아직 적용되지 않은 작업이 있는 CellController를 등록한다.
+     * @param cellController
+     */
+    protected void addPendingCellController(final CellController cellController){
+        pendingCellControllerList.add(cellController);
+    }
+
+    /**
+     * cellController의 작업이 적용되었으므로 등록을 해제한다.
+     * 대부분 마지막에 등록된 CellController이므로 목록의 끝에서만 제거하고,
+     * 중간에 남은 것은 flushPendingCells()에서 건너뛴다.
+     * @param cellController
+     */
+    private void removePendingCellController(final CellController cellController){
+        int lastIndex = pendingCellControllerList.size() - 1;
+        if(lastIndex >= 0 && pendingCellControllerList.get(lastIndex) == cellController){
+            pendingCellControllerList.remove(lastIndex);
+        }
+    }
+
+    /**
+     * 등록된 CellController들의 아직 적용되지 않은 작업을 모두 적용한다.
+     */
+    protected void flushPendingCells(){
+        awaitBackgroundFlush();
+        for(CellController cellController : pendingCellControllerList){
+            cellController.flush();
+        }
+        pendingCellControllerList.clear();
+    }
+
+    /**
+     * 등록된 CellController 중 rowIndex 이전 Row에 있는 것들의 아직 적용되지 않은 작업을 적용한다.
+     * @param rowIndex Row의 번호(0부터 시작).
+     */
+    private void flushPendingCellsBefore(final int rowIndex){
+        if(pendingCellControllerList.isEmpty()){
+            return;
+        }
+        pendingCellControllerList.removeIf(cellController -> {
+            if(cellController.getRowIndex() < rowIndex){
+                cellController.flush();
+                return true;
+            }
+            return !cellController.isPending();
+        });
+    }
+
+    /**
+     * Row Height를 지연하여 맞출 CellController를 등록한다.
+     * 같은 CellController는 한 번만 등록된다.
+     * @param cellController
+     */
+    protected void addRowHeightCellController(final CellController cellController){
+        rowHeightCellControllerSet.add(cellController);
+    }
+
+    /**
+     * CellController를 해제할 때 Row Height를 맞출 CellController이면 등록을 해제한다.
+     * 해제된 CellController를 보관하지 않도록, 지금 필요한 높이를 계산하여 Row별로 가장 큰 값만 기록한다.
+     * @param cellController 해제할 CellController
+     */
+    private void releaseRowHeightCellController(final CellController cellController){
+        if(rowHeightCellControllerSet.remove(cellController)){
+            final int cellWidthPixels = UnitConverter.columnWidthToPixels(worksheet.getColumnWidth(cellController.getColIndex()));
+            releasedRowHeightMap.merge(cellController.getRowIndex(), cellController.getRequiredHeightPixels(cellWidthPixels), Math::max);
+        }
+    }
+
+    /**
+     * 등록된 CellController들의 Row Height를 모두 맞춘다.
+     * finishWorksheet() 또는 Workbook을 출력할 때 호출된다.
+     */
+    protected void fitRowHeights(){
+        fitRowHeightsBefore(Integer.MAX_VALUE);
+    }
+
+    /**
+     **<pre>
+     **등록된 CellController 중 rowIndex 이전 Row에 있는 것들의 Row Height를 맞춘다.
+     **Row마다 모든 Cell의 Text(Image, File 자리 포함) 높이 중 가장 큰 값으로 늘리며, 이미 더 높은 Row는 줄이지 않는다.
+     **Column Width는 먼저 읽어두고, Cell이 많으면 Row 범위별로 나누어 rowHeightExecutor에서 높이를 계산한 뒤
+     **먼저 해제된 CellController의 높이와 합쳐 호출한 Thread에서 Row에 적용한다.
+     * </pre>
+     * @param rowIndex Row의 번호(0부터 시작).
+     */
+    private void fitRowHeightsBefore(final int rowIndex){
+        if(rowHeightCellControllerSet.isEmpty() && releasedRowHeightMap.isEmpty()){
+            return;
+        }
+        final List<CellController> cellControllerList = new ArrayList<>();
+        final Iterator<CellController> iterator = rowHeightCellControllerSet.iterator();
+        while(iterator.hasNext()){
+            final CellController cellController = iterator.next();
+            if(cellController.getRowIndex() < rowIndex){
+                cellControllerList.add(cellController);
+                iterator.remove();
+            }
+        }
+        final SortedMap<Integer, Integer> releasedRowHeights = releasedRowHeightMap.headMap(rowIndex);
+        if(cellControllerList.isEmpty() && releasedRowHeights.isEmpty()){
+            return;
+        }
+        awaitBackgroundFlush();
+        cellControllerList.sort(Comparator.comparingInt(CellController::getRowIndex));
+
+        final int cellCount = cellControllerList.size();
+        final int[] cellWidthPixels = new int[cellCount];
+        final Map<Integer, Integer> columnWidthPixelsMap = new HashMap<>(); // key: colIndex, value: Column Width(Pixels)
+        for(int i = 0; i < cellCount; i++){
+            cellWidthPixels[i] = columnWidthPixelsMap.computeIfAbsent(cellControllerList.get(i).getColIndex(),
+                colIndex -> UnitConverter.columnWidthToPixels(worksheet.getColumnWidth(colIndex)));
+        }
+
+        final int[] requiredHeightPixels = new int[cellCount];
+        final Executor rowHeightExecutor = excelController.getRowHeightExecutor();
+        if(rowHeightExecutor == null || cellCount <= ROW_HEIGHT_BATCH_SIZE){
+            computeRequiredHeights(cellControllerList, cellWidthPixels, requiredHeightPixels, 0, cellCount);
+        }else{
+            final List<CompletableFuture<Void>> futureList = new ArrayList<>();
+            int from = 0;
+            while(from < cellCount){
+                int to = Math.min(from + ROW_HEIGHT_BATCH_SIZE, cellCount);
+                while(to < cellCount && cellControllerList.get(to).getRowIndex() == cellControllerList.get(to - 1).getRowIndex()){
+                    to++; // 한 Row의 Cell은 같은 작업에서 계산한다.
+                }
+                final int start = from;
+                final int end = to;
+                futureList.add(CompletableFuture.runAsync(() -> computeRequiredHeights(cellControllerList, cellWidthPixels, requiredHeightPixels, start, end), rowHeightExecutor));
+                from = to;
+            }
+            CompletableFuture.allOf(futureList.toArray(new CompletableFuture<?>[0])).join();
+        }
+
+        final TreeMap<Integer, Integer> rowHeightMap = new TreeMap<>(releasedRowHeights); // key: rowIndex, value: 필요한 높이(Pixels)
+        releasedRowHeights.clear();
+        for(int i = 0; i < cellCount; i++){
+            rowHeightMap.merge(cellControllerList.get(i).getRowIndex(), requiredHeightPixels[i], Math::max);
+        }
+        for(Map.Entry<Integer, Integer> entry : rowHeightMap.entrySet()){
+            final Row row = worksheet.getRow(entry.getKey());
+            final int maxHeightPixels = entry.getValue();
+            if(row != null && UnitConverter.pointsToPixels(row.getHeightInPoints()) < maxHeightPixels){
+                row.setHeight(UnitConverter.pixelsToPoiHeight(maxHeightPixels));
+            }
+        }
+    }
+
+    private static void computeRequiredHeights(final List<CellController> cellControllerList, final int[] cellWidthPixels, final int[] requiredHeightPixels, final int from, final int to){
+        for(int i = from; i < to; i++){
+            requiredHeightPixels[i] = cellControllerList.get(i).getRequiredHeightPixels(cellWidthPixels[i]);
+        }
+    }
+
     /**
      * Cell을 Merge한다.
      * @param startRowIndex 시작 Row Index(0부터 시작)
@@ -234,9 +830,83 @@ public class SheetController {
 
     /**
      * SheetController 작업을 종료하고 ExcelController Instance를 반환한다.
+     * Row Height를 지연하여 맞추면(setDeferredRowHeight(true)) 이때 Sheet의 Row Height를 맞춘다.
      * @return ExcelController
      */
     public ExcelController finishWorksheet(){
+        fitRowHeights();
+        final Executor sheetFlushExecutor = excelController.getSheetFlushExecutor();
+        if(sheetFlushExecutor != null && worksheet instanceof SXSSFSheet){
+            flushRowsInBackground(sheetFlushExecutor);
+        }
         return excelController;
     }
+
+    /**
+     **<pre>
+     **아직 적용되지 않은 작업을 적용한 뒤, 메모리에 남은 Row를 executor에서 임시 파일로 flush한다.
+     **flush가 진행되는 동안 호출한 쪽은 다른 Sheet를 계속 작업할 수 있다.
+     **이 Sheet의 Row에 다시 접근하면 flush가 끝날 때까지 기다린다.
+     * </pre>
+     * @param executor flush를 실행할 Executor
+     */
+    private void flushRowsInBackground(final Executor executor){
+        flushPendingCells();
+        final SXSSFSheet sxssfSheet = (SXSSFSheet)worksheet;
+        backgroundFlush = CompletableFuture.runAsync(() -> {
+            try {
+                sxssfSheet.flushRows();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * ExcelController.addSheetAsync()에서 다른 Thread가 채우는 버퍼를 등록한다.
+     * @param sheetBufferFuture 버퍼가 다 채워지면 완료되는 CompletableFuture
+     */
+    protected void setSheetBufferFuture(final CompletableFuture<SheetBuffer> sheetBufferFuture){
+        this.sheetBufferFuture = sheetBufferFuture;
+    }
+
+    /**
+     * 아직 Sheet에 입력되지 않은 버퍼를 반환한다.
+     * @return 버퍼가 다 채워지면 완료되는 CompletableFuture, 없으면 null
+     */
+    protected CompletableFuture<SheetBuffer> getSheetBufferFuture(){
+        return sheetBufferFuture;
+    }
+
+    /**
+     * 등록된 버퍼가 있으면 다 채워질 때까지 기다린 뒤 Sheet에 입력한다.
+     * 버퍼를 채우는 중 예외가 발생했으면 CompletionException으로 전달된다.
+     */
+    protected void mergeSheetBuffer(){
+        if(sheetBufferFuture != null){
+            final CompletableFuture<SheetBuffer> future = sheetBufferFuture;
+            sheetBufferFuture = null;
+            future.join().mergeInto(this);
+        }
+    }
+
+    /**
+     * finishWorksheet()에서 시작된 Row flush 작업을 반환한다.
+     * @return 진행 중이거나 끝난 flush 작업, 없으면 null
+     */
+    protected CompletableFuture<Void> getBackgroundFlush(){
+        return backgroundFlush;
+    }
+
+    /**
+     * finishWorksheet()에서 시작된 Row flush 작업이 있으면 끝날 때까지 기다린다.
+     * flush 중 예외가 발생했으면 CompletionException으로 전달된다.
+     */
+    protected void awaitBackgroundFlush(){
+        if(backgroundFlush != null){
+            final CompletableFuture<Void> flush = backgroundFlush;
+            backgroundFlush = null;
+            flush.join();
+        }
+    }
 }
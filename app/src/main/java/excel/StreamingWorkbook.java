@@ -0,0 +1,35 @@
+package excel;
+
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * 출력할 zip의 압축 수준을 바꿀 수 있는 SXSSFWorkbook.
+ * SXSSFWorkbook은 write()에서 zip을 직접 만들기 때문에, ZipArchiveOutputStream을 넘겨서는 압축 수준을 바꿀 수 없다.
+ */
+final class StreamingWorkbook extends SXSSFWorkbook {
+    private int archiveCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    StreamingWorkbook(final XSSFWorkbook workbook, final int rowAccessWindowSize){
+        super(workbook, rowAccessWindowSize);
+    }
+
+    /**
+     * 다음 write()에서 사용할 zip의 압축 수준을 설정한다.
+     * @param archiveCompressionLevel Deflater의 압축 수준
+     */
+    void setArchiveCompressionLevel(final int archiveCompressionLevel){
+        this.archiveCompressionLevel = archiveCompressionLevel;
+    }
+
+    @Override
+    protected ZipArchiveOutputStream createArchiveOutputStream(final OutputStream outputStream) {
+        final ZipArchiveOutputStream zipArchiveOutputStream = super.createArchiveOutputStream(outputStream);
+        zipArchiveOutputStream.setLevel(archiveCompressionLevel);
+        return zipArchiveOutputStream;
+    }
+}
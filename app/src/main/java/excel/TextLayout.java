@@ -0,0 +1,90 @@
+package excel;
+
+/**
+ **<pre>
+ **CellController.addText(), addImage(), addFile()로 이어 붙이는 Cell의 Text와 그 Line 수를 보관한다.
+ **Line 수는 이어 붙인 부분만 계산하여 누적하므로, 여러 번 이어 붙여도 전체 Text를 다시 읽지 않는다.
+ **글자 폭은 GlyphWidthTable에서 읽으며, 한 Line에 들어가는 글자 수(maxCharacterCountInWidth)나 GlyphWidthTable이 바뀌면
+ **(Column Width, Font 변경) 한 번만 전체를 다시 계산한다.
+ * </pre>
+ */
+final class TextLayout {
+    private final StringBuilder text;
+    private double maxCharacterCountInWidth = Double.NaN; // 누적된 Line 수의 기준, NaN이면 아직 계산하지 않음
+    private GlyphWidthTable glyphWidthTable; // 누적된 Line 수의 글자 폭 기준
+    private int completedLineCount = 0; // 줄바꿈 문자로 끝난 Line들의 수(자동 줄바꿈 포함)
+    private double currentLineWidth = 0d; // 마지막 Line의 글자 폭 합(글자 단위)
+
+    TextLayout(final String text){
+        this.text = new StringBuilder(text);
+    }
+
+    /**
+     * text를 이어 붙이고, 계산된 Line 수가 있으면 이어 붙인 부분만큼 누적한다.
+     * @param text
+     */
+    void append(final CharSequence text){
+        final int start = this.text.length();
+        this.text.append(text);
+        if(!Double.isNaN(maxCharacterCountInWidth)){
+            layout(start);
+        }
+    }
+
+    /**
+     * 한 Line에 몇 글자가 들어갈 수 있는지 판단하여 Text의 총 Line 수를 구한다.
+     * @param maxCharacterCountInWidth 한 Line에 들어가는 글자 수
+     * @param glyphWidthTable 글자 폭
+     * @return Text의 총 Line 수
+     */
+    int getLineCount(final double maxCharacterCountInWidth, final GlyphWidthTable glyphWidthTable){
+        if(this.maxCharacterCountInWidth != maxCharacterCountInWidth || this.glyphWidthTable != glyphWidthTable){
+            this.maxCharacterCountInWidth = maxCharacterCountInWidth;
+            this.glyphWidthTable = glyphWidthTable;
+            completedLineCount = 0;
+            currentLineWidth = 0d;
+            layout(0);
+        }
+        if(text.length() == 0 || isNewLine(text.charAt(text.length() - 1))){
+            return completedLineCount;
+        }
+        return completedLineCount + (int)(Math.ceil(currentLineWidth / maxCharacterCountInWidth));
+    }
+
+    int length(){
+        return text.length();
+    }
+
+    char charAt(final int index){
+        return text.charAt(index);
+    }
+
+    @Override
+    public String toString(){
+        return text.toString();
+    }
+
+    /**
+     * start부터 Text의 끝까지 Line 수를 누적한다.
+     * @param start
+     */
+    private void layout(final int start){
+        for(int i = start; i < text.length(); i++){
+            final char c = text.charAt(i);
+            if(isNewLine(c)){
+                if(currentLineWidth > 0d){
+                    completedLineCount += (int)(Math.ceil(currentLineWidth / maxCharacterCountInWidth));
+                    currentLineWidth = 0d;
+                }else{
+                    completedLineCount++;
+                }
+            }else{
+                currentLineWidth += glyphWidthTable.getWidth(c);
+            }
+        }
+    }
+
+    private static boolean isNewLine(final char c){
+        return c == '\n' || c == '\r';
+    }
+}
@@ -0,0 +1,118 @@
+package excel;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ **<pre>
+ **여러 번 사용할 Workbook의 뼈대(Sheet, Column Width, Header Row, CellStyle, Font, 아이콘 이미지)를 보관하는 template.
+ **ExcelController로 한 번 만든 Workbook을 압축하지 않은 zip으로 메모리에 보관하고,
+ **newExcelController()는 API를 다시 호출하지 않고 보관된 zip을 읽어 새 ExcelController를 만든다.
+ **CellStyle, Font, Image 등록 정보도 index로 보관했다가 그대로 채우므로, template에 있는 Style은 다시 만들어지지 않는다.
+ **WorkbookTemplate은 생성된 뒤 수정되지 않으므로 여러 Thread에서 동시에 newExcelController()를 호출해도 된다.
+ **예시)
+ **ExcelController skeleton = new ExcelController();
+ **skeleton.selectWorksheet(0).setColumnWidth(0, 20).selectCell(0, 0).setText("이름").setBold(true);
+ **WorkbookTemplate template = WorkbookTemplate.from(skeleton);
+ **skeleton.close();
+ **ExcelController excelController = template.newExcelController();
+ * </pre>
+ */
+public class WorkbookTemplate {
+    private final byte[] packageBytes;
+    private final Map<CellStyleKey, Integer> cellStyleIndexMap = new HashMap<>(); // key: CellStyleKey, value: CellStyle index
+    private final Map<FontKey, Integer> fontIndexMap = new HashMap<>(); // key: FontKey, value: Font index
+    private final Map<String, Integer> imageIndexMap;
+    private final Map<String, Integer> fileIndexMap;
+    private final ContentIndex pictureContentIndex = new ContentIndex();
+    private final ContentIndex fileContentIndex = new ContentIndex();
+
+    private WorkbookTemplate(final ExcelController excelController) throws IOException{
+        packageBytes = excelController.toUncompressedBytes();
+        // 등록된 Key는 복사본이며 수정되지 않으므로 그대로 공유한다.
+        for(Map.Entry<CellStyleKey, CellStyle> entry : excelController.getCellStyleMap().entrySet()){
+            cellStyleIndexMap.put(entry.getKey(), (int)entry.getValue().getIndex());
+        }
+        for(Map.Entry<FontKey, Font> entry : excelController.getFontMap().entrySet()){
+            fontIndexMap.put(entry.getKey(), entry.getValue().getIndex());
+        }
+        imageIndexMap = new HashMap<>(excelController.getImageIndexMap());
+        fileIndexMap = new HashMap<>(excelController.getFileIndexMap());
+        pictureContentIndex.putAll(excelController.getPictureContentIndex());
+        fileContentIndex.putAll(excelController.getFileContentIndex());
+    }
+
+    /**
+     * excelController의 현재 Workbook으로 template을 만든다.
+     * 아직 적용되지 않은 Cell 작업은 적용된 뒤 보관되며, excelController는 close되지 않는다.
+     * @param excelController template으로 사용할 ExcelController
+     * @return WorkbookTemplate
+     * @throws IOException
+     */
+    public static WorkbookTemplate from(final ExcelController excelController) throws IOException{
+        return new WorkbookTemplate(excelController);
+    }
+
+    /**
+     * template으로부터 새 ExcelController를 생성한다.
+     * @return 새 ExcelController
+     * @throws IOException
+     */
+    public ExcelController newExcelController() throws IOException{
+        return new ExcelController(this, 0);
+    }
+
+    /**
+     **<pre>
+     **template으로부터 Streaming 방식의 새 ExcelController를 생성한다.
+     **template에 이미 있는 Row는 수정할 수 없고, 그 다음 Row부터 추가할 수 있다.
+     * </pre>
+     * @param rowAccessWindowSize Sheet마다 메모리에 유지할 Row 수(1 이상)
+     * @return 새 ExcelController
+     * @throws IOException
+     */
+    public ExcelController newExcelController(final int rowAccessWindowSize) throws IOException{
+        if(rowAccessWindowSize < 1){
+            throw new IllegalArgumentException("rowAccessWindowSize는 1 이상이어야 합니다.");
+        }
+        return new ExcelController(this, rowAccessWindowSize);
+    }
+
+    /**
+     * 압축하지 않은 zip으로 보관된 Workbook을 반환한다.
+     * @return Workbook(zip)
+     */
+    byte[] getPackageBytes(){
+        return packageBytes;
+    }
+
+    /**
+     * 보관된 등록 정보를 workbook으로 새로 만든 ExcelController의 Map들에 채운다.
+     * @param workbook packageBytes로 만든 Workbook
+     * @param cellStyleMap
+     * @param fontMap
+     * @param imageIndexMap
+     * @param fileIndexMap
+     * @param pictureContentIndex
+     * @param fileContentIndex
+     */
+    void copyRegistries(final Workbook workbook, final Map<CellStyleKey, CellStyle> cellStyleMap, final Map<FontKey, Font> fontMap,
+        final Map<String, Integer> imageIndexMap, final Map<String, Integer> fileIndexMap,
+        final ContentIndex pictureContentIndex, final ContentIndex fileContentIndex){
+        for(Map.Entry<CellStyleKey, Integer> entry : cellStyleIndexMap.entrySet()){
+            cellStyleMap.put(entry.getKey(), workbook.getCellStyleAt(entry.getValue()));
+        }
+        for(Map.Entry<FontKey, Integer> entry : fontIndexMap.entrySet()){
+            fontMap.put(entry.getKey(), workbook.getFontAt(entry.getValue()));
+        }
+        imageIndexMap.putAll(this.imageIndexMap);
+        fileIndexMap.putAll(this.fileIndexMap);
+        pictureContentIndex.putAll(this.pictureContentIndex);
+        fileContentIndex.putAll(this.fileContentIndex);
+    }
+}
@@ -1,16 +1,66 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.regex.Pattern;
 
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.poifs.filesystem.Ole10Native;
+import org.apache.poi.poifs.filesystem.Ole10NativeException;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import excel.CellController;
+import excel.CellRetentionPolicy;
+import excel.ColumnSchema;
+import excel.ColumnType;
+import excel.CompressionLevel;
 import excel.ExcelController;
 import excel.FileFormat;
 import excel.FileObject;
 import excel.ImageFormat;
 import excel.ImageObject;
+import excel.ImageObjectLoader;
+import excel.ImageResampler;
+import excel.ResultSetExporter;
+import excel.RowSubscriber;
+import excel.SheetController;
+import excel.WorkbookTemplate;
 
 class AppTest {
     @Test
@@ -83,4 +133,697 @@ class AppTest {
             .writeTo(new FileOutputStream("sample.xlsx"));
         ;
     }
+
+    @Test
+    void cellStyleInterningTest() throws IOException {
+        ExcelController excelController = new ExcelController();
+        SheetController sheetController = excelController.selectWorksheet(0);
+
+        CellStyle first = sheetController.selectCell(0, 0).setCellColor(200, 200, 200).setBorderStyle(BorderStyle.THIN).getWorkcellStyle();
+        CellStyle second = sheetController.selectCell(1, 0).setCellColor(200, 200, 200).setBorderStyle(BorderStyle.THIN).getWorkcellStyle();
+        CellStyle third = sheetController.selectCell(2, 0).setCellColor(100, 100, 100).setBorderStyle(BorderStyle.THIN).getWorkcellStyle();
+
+        assertSame(sheetController.selectCell(3, 0).getWorkcellStyle(), sheetController.selectCell(4, 0).getWorkcellStyle());
+        assertSame(second, sheetController.selectCell(5, 0).setBorderStyle(BorderStyle.THIN).setCellColor(200, 200, 200).getWorkcellStyle());
+        assertNotSame(second, third);
+        assertSame(
+            sheetController.selectCell(6, 0).setBold(true).setFontPoints((short)12).getWorkcellStyle(),
+            sheetController.selectCell(7, 0).setFontPoints((short)12).setBold(true).getWorkcellStyle()
+        );
+        assertEquals(first.getFontIndex(), sheetController.selectCell(8, 0).setBold(true).setBold(false).getWorkcellStyle().getFontIndex());
+        assertSame(first, second);
+
+        excelController.close();
+    }
+
+    @Test
+    void colorCacheTest() throws IOException {
+        Map<Integer, XSSFColor> colorMap = new HashMap<>();
+        ExcelController excelController = new ExcelController(){
+            @Override
+            protected XSSFColor getColor(final int rgb){
+                XSSFColor color = super.getColor(rgb);
+                XSSFColor previous = colorMap.putIfAbsent(rgb, color);
+                assertSame(previous == null ? color : previous, color); // 같은 RGB는 같은 XSSFColor를 재사용한다.
+                return color;
+            }
+        };
+        SheetController sheetController = excelController.selectWorksheet(0);
+        sheetController.selectCell(0, 0).setText("fill").setCellColor(10, 20, 30).finishWorkcell();
+        sheetController.selectCell(0, 1).setText("font").setFontColor(10, 20, 30).finishWorkcell();
+        sheetController.selectCell(1, 0).setText("border").setBorderStyle(BorderStyle.THIN).setBorderColor(200, 100, 50).finishWorkcell();
+        sheetController.selectCell(1, 1).setText("font").setFontColor(1, 2, 3).finishWorkcell();
+
+        byte[] bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+        assertEquals(3, colorMap.size());
+        assertEquals(3, new HashSet<>(colorMap.values()).size());
+        assertNotSame(colorMap.get(0x0A141E), colorMap.get(0x010203));
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            Sheet sheet = workbook.getSheetAt(0);
+            XSSFCellStyle fillStyle = (XSSFCellStyle)sheet.getRow(0).getCell(0).getCellStyle();
+            assertEquals(true, Arrays.equals(new byte[]{10, 20, 30}, fillStyle.getFillForegroundXSSFColor().getRGB()));
+            XSSFCellStyle fontStyle = (XSSFCellStyle)sheet.getRow(0).getCell(1).getCellStyle();
+            assertEquals(true, Arrays.equals(new byte[]{10, 20, 30}, fontStyle.getFont().getXSSFColor().getRGB()));
+            XSSFCellStyle borderStyle = (XSSFCellStyle)sheet.getRow(1).getCell(0).getCellStyle();
+            assertEquals(true, Arrays.equals(new byte[]{(byte)200, 100, 50}, borderStyle.getTopBorderXSSFColor().getRGB()));
+            assertEquals(true, Arrays.equals(new byte[]{(byte)200, 100, 50}, borderStyle.getRightBorderXSSFColor().getRGB()));
+            XSSFCellStyle otherFontStyle = (XSSFCellStyle)sheet.getRow(1).getCell(1).getCellStyle();
+            assertEquals(true, Arrays.equals(new byte[]{1, 2, 3}, otherFontStyle.getFont().getXSSFColor().getRGB()));
+        }
+    }
+
+    @Test
+    void deferredStyleResolutionTest() throws IOException {
+        ExcelController excelController = new ExcelController().setDeferredStyleResolution(true);
+        SheetController sheetController = excelController.selectWorksheet(0);
+
+        sheetController.selectCell(0, 0)
+            .setHorizontalAlignment(HorizontalAlignment.CENTER)
+            .setCellColor(10, 20, 30)
+            .setCellColor(200, 200, 200)
+            .setBold(true)
+            .setBorderStyle(BorderStyle.THIN)
+        .finishWorkcell();
+        CellStyle deferred = sheetController.selectCell(0, 0).getWorkcellStyle();
+
+        CellStyle sameAttributes = sheetController.selectCell(1, 0)
+            .setBorderStyle(BorderStyle.THIN)
+            .setBold(true)
+            .setCellColor(200, 200, 200)
+            .setHorizontalAlignment(HorizontalAlignment.CENTER)
+            .getWorkcellStyle();
+
+        assertSame(deferred, sameAttributes);
+        assertEquals(HorizontalAlignment.CENTER, deferred.getAlignment());
+        assertEquals(BorderStyle.THIN, deferred.getBorderTop());
+
+        excelController.close();
+    }
+
+    @Test
+    void cellRetentionPolicyTest() throws IOException {
+        ExcelController excelController = new ExcelController();
+        SheetController sheetController = excelController.selectWorksheet(0)
+            .setCellRetentionPolicy(CellRetentionPolicy.DROP_ON_FINISH);
+
+        CellController first = sheetController.selectCell(0, 0).setText("first").setBold(true);
+        CellStyle boldStyle = first.getWorkcellStyle();
+        first.finishWorkcell();
+
+        CellController rebuilt = sheetController.selectCell(0, 0);
+        assertNotSame(first, rebuilt);
+        assertEquals(boldStyle, rebuilt.getWorkcellStyle());
+        assertSame(boldStyle, rebuilt.setBold(false).setBold(true).getWorkcellStyle());
+
+        sheetController.setCellRetentionPolicy(CellRetentionPolicy.KEEP_LAST_ROWS, 2);
+        CellController oldRow = sheetController.selectCell(1, 0);
+        for(int rowIndex = 2; rowIndex < 10; rowIndex++){
+            sheetController.selectCell(rowIndex, 0).setText("row " + rowIndex).finishWorkcell();
+        }
+        assertNotSame(oldRow, sheetController.selectCell(1, 0));
+        assertSame(sheetController.selectCell(9, 0), sheetController.selectCell(9, 0));
+
+        excelController.close();
+    }
+
+    @Test
+    void streamingExcelControllerTest() throws IOException {
+        ExcelController excelController = new ExcelController(10).setDeferredStyleResolution(true);
+        SheetController sheetController = excelController.selectWorksheet(0);
+        for(int rowIndex = 0; rowIndex < 100; rowIndex++){
+            sheetController.selectCell(rowIndex, 0).setText("row " + rowIndex).setBold(rowIndex % 2 == 0).finishWorkcell()
+                .selectCell(rowIndex, 1).setNumber(rowIndex).setCellColor(200, 200, 200);
+        }
+        assertThrows(IllegalStateException.class, () -> sheetController.selectCell(5, 0));
+
+        byte[] bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(99, sheet.getLastRowNum());
+            assertEquals("row 5", sheet.getRow(5).getCell(0).getStringCellValue());
+            assertEquals(true, workbook.getFontAt(sheet.getRow(4).getCell(0).getCellStyle().getFontIndex()).getBold());
+            assertEquals(FillPatternType.SOLID_FOREGROUND, sheet.getRow(99).getCell(1).getCellStyle().getFillPattern());
+        }
+    }
+
+    @Test
+    void writeToPathTest(@TempDir Path tempDir) throws IOException {
+        ExcelController excelController = new ExcelController();
+        excelController.selectWorksheet(0).selectCell(0, 0).setText("direct");
+        Path path = tempDir.resolve("direct.xlsx");
+        excelController.writeToAndClose(path);
+
+        try(XSSFWorkbook workbook = new XSSFWorkbook(Files.newInputStream(path))){
+            assertEquals("direct", workbook.getSheetAt(0).getRow(0).getCell(0).getStringCellValue());
+        }
+    }
+
+    @Test
+    void writeAsyncTest() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try{
+            ExcelController excelController = new ExcelController(10).setSheetFlushExecutor(executor);
+            excelController.addSheet().addSheet();
+            for(int sheetIndex = 0; sheetIndex < 3; sheetIndex++){
+                SheetController sheetController = excelController.selectWorksheet(sheetIndex);
+                for(int rowIndex = 0; rowIndex < 50; rowIndex++){
+                    sheetController.selectCell(rowIndex, 0).setText("sheet " + sheetIndex + " row " + rowIndex);
+                }
+                sheetController.finishWorksheet();
+            }
+            assertThrows(IllegalStateException.class, () -> excelController.selectWorksheet(0).selectCell(45, 0).setText("changed"));
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            excelController.writeAsync(outputStream, executor).join();
+            excelController.close();
+
+            try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))){
+                assertEquals(3, workbook.getNumberOfSheets());
+                assertEquals("sheet 2 row 49", workbook.getSheetAt(2).getRow(49).getCell(0).getStringCellValue());
+                assertEquals("sheet 0 row 0", workbook.getSheetAt(0).getRow(0).getCell(0).getStringCellValue());
+            }
+        }finally{
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void appendRowsTest() throws IOException {
+        ExcelController excelController = new ExcelController(5);
+        SheetController sheetController = excelController.selectWorksheet(0);
+        sheetController.selectCell(0, 0).setText("name").setBold(true).finishWorkcell();
+        ColumnSchema columnSchema = new ColumnSchema()
+            .addColumn(ColumnType.TEXT)
+            .addColumn(ColumnType.NUMBER, "#,##0").setCellColor(200, 200, 200)
+            .addColumn(ColumnType.DATE, "yyyy-mm-dd");
+        sheetController.appendRows(columnSchema, Arrays.asList(
+            new Object[]{"a", 1000, LocalDate.of(2024, 1, 2)},
+            new Object[]{"b", 2.5, null, true}
+        ));
+        sheetController.appendRows(Arrays.<Object[]>asList(new Object[]{"c", 3, LocalDate.of(2024, 3, 4)}));
+        assertThrows(IllegalArgumentException.class, () -> sheetController.appendRows(columnSchema, Arrays.<Object[]>asList(new Object[]{"d", "not a number"})));
+
+        byte[] bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals("a", sheet.getRow(1).getCell(0).getStringCellValue());
+            assertEquals(1000, sheet.getRow(1).getCell(1).getNumericCellValue());
+            assertEquals("#,##0", sheet.getRow(1).getCell(1).getCellStyle().getDataFormatString());
+            assertEquals(LocalDate.of(2024, 1, 2), sheet.getRow(1).getCell(2).getLocalDateTimeCellValue().toLocalDate());
+            assertEquals(sheet.getRow(1).getCell(1).getCellStyle(), sheet.getRow(2).getCell(1).getCellStyle());
+            assertEquals(true, sheet.getRow(2).getCell(3).getBooleanCellValue());
+            assertEquals(LocalDate.of(2024, 3, 4), sheet.getRow(3).getCell(2).getLocalDateTimeCellValue().toLocalDate());
+        }
+    }
+
+    @Test
+    void writeColumnTest() throws IOException {
+        ExcelController excelController = new ExcelController();
+        SheetController sheetController = excelController.selectWorksheet(0);
+        sheetController.selectCell(1, 0).setText("old").setBold(true);
+        ColumnSchema columnSchema = new ColumnSchema()
+            .addColumn(ColumnType.NUMBER, "0.00")
+            .addColumn(ColumnType.NUMBER)
+            .addColumn(ColumnType.DATE, "yyyy-mm-dd");
+        sheetController.writeColumn(columnSchema, 0, 0, new double[]{1.5, 2.5, 3.5})
+            .writeColumn(1, 0, new long[]{10L, 20L})
+            .writeColumn(columnSchema, 2, 0, new LocalDate[]{LocalDate.of(2024, 5, 6), null});
+        assertThrows(IllegalArgumentException.class, () -> sheetController.writeColumn(columnSchema, 2, 0, new int[]{1}));
+        assertEquals("0.00", sheetController.selectCell(1, 0).getWorkcellStyle().getDataFormatString());
+
+        ExcelController streamingExcelController = new ExcelController(2);
+        streamingExcelController.selectWorksheet(0).writeColumns(0, 0, new double[]{1, 2, 3, 4}, new double[]{5, 6});
+
+        byte[] bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(2.5, sheet.getRow(1).getCell(0).getNumericCellValue());
+            assertEquals(false, workbook.getFontAt(sheet.getRow(1).getCell(0).getCellStyle().getFontIndex()).getBold());
+            assertEquals(20, sheet.getRow(1).getCell(1).getNumericCellValue());
+            assertEquals(LocalDate.of(2024, 5, 6), sheet.getRow(0).getCell(2).getLocalDateTimeCellValue().toLocalDate());
+            assertEquals("yyyy-mm-dd", sheet.getRow(1).getCell(2).getCellStyle().getDataFormatString());
+        }
+        bytes = streamingExcelController.getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(4, sheet.getRow(3).getCell(0).getNumericCellValue());
+            assertEquals(6, sheet.getRow(1).getCell(1).getNumericCellValue());
+            assertEquals(null, sheet.getRow(2).getCell(1));
+        }
+    }
+
+    @Test
+    void rowSubscriberTest() throws IOException {
+        ExcelController excelController = new ExcelController(20);
+        RowSubscriber rowSubscriber = excelController.selectWorksheet(0)
+            .createRowSubscriber(new ColumnSchema().addColumn(ColumnType.NUMBER).addColumn(ColumnType.TEXT), 16);
+        try(SubmissionPublisher<Object[]> publisher = new SubmissionPublisher<>()){
+            publisher.subscribe(rowSubscriber);
+            for(int rowIndex = 0; rowIndex < 500; rowIndex++){
+                publisher.submit(new Object[]{rowIndex, "row " + rowIndex, LocalDate.of(2024, 1, 1).plusDays(rowIndex)}); // 2번 Column은 ColumnSchema에 없는 AUTO Column
+            }
+        }
+        assertSame(excelController.selectWorksheet(0), rowSubscriber.getCompletion().join());
+
+        byte[] bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(499, sheet.getLastRowNum());
+            assertEquals("row 250", sheet.getRow(250).getCell(1).getStringCellValue());
+            assertEquals(LocalDate.of(2024, 1, 11), sheet.getRow(10).getCell(2).getLocalDateTimeCellValue().toLocalDate());
+            assertEquals(true, DateUtil.isCellDateFormatted(sheet.getRow(10).getCell(2)));
+        }
+    }
+
+    @Test
+    void resultSetExporterTest() throws IOException, SQLException {
+        String[] labels = {"ID", "NAME", "CREATED"};
+        int[] types = {Types.INTEGER, Types.VARCHAR, Types.DATE};
+        Object[][] rows = {
+            {1, "a", java.sql.Date.valueOf("2024-01-02")},
+            {null, "b", null},
+            {3, null, java.sql.Date.valueOf("2024-03-04")}
+        };
+        ResultSet resultSet = createResultSet(labels, types, rows);
+
+        ExcelController excelController = new ExcelController(10);
+        List<Long> progressList = new ArrayList<>();
+        long rowCount = new ResultSetExporter(excelController.selectWorksheet(0))
+            .setProgressListener(2, progressList::add)
+            .export(resultSet);
+        assertEquals(3, rowCount);
+        assertEquals(Arrays.asList(2L, 3L), progressList);
+
+        byte[] bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals("NAME", sheet.getRow(0).getCell(1).getStringCellValue());
+            assertEquals(true, workbook.getFontAt(sheet.getRow(0).getCell(1).getCellStyle().getFontIndex()).getBold());
+            assertEquals(1, sheet.getRow(1).getCell(0).getNumericCellValue());
+            assertEquals(CellType.BLANK, sheet.getRow(2).getCell(0).getCellType());
+            assertEquals(LocalDate.of(2024, 3, 4), sheet.getRow(3).getCell(2).getLocalDateTimeCellValue().toLocalDate());
+            assertEquals("yyyy-mm-dd", sheet.getRow(3).getCell(2).getCellStyle().getDataFormatString());
+        }
+    }
+
+    /**
+     * 테스트용 ResultSet을 만든다.
+     * export()에서 사용하는 method만 구현한다.
+     */
+    private static ResultSet createResultSet(String[] labels, int[] types, Object[][] rows){
+        ResultSetMetaData metaData = (ResultSetMetaData)Proxy.newProxyInstance(AppTest.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+            switch(method.getName()){
+                case "getColumnCount": return labels.length;
+                case "getColumnLabel": return labels[(Integer)args[0] - 1];
+                case "getColumnType": return types[(Integer)args[0] - 1];
+                default: throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        int[] cursor = {-1};
+        boolean[] wasNull = {false};
+        return (ResultSet)Proxy.newProxyInstance(AppTest.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+            switch(method.getName()){
+                case "getMetaData": return metaData;
+                case "next": return ++cursor[0] < rows.length;
+                case "wasNull": return wasNull[0];
+                case "getDouble": {
+                    Object value = rows[cursor[0]][(Integer)args[0] - 1];
+                    wasNull[0] = value == null;
+                    return value == null ? 0.0 : ((Number)value).doubleValue();
+                }
+                case "getString":
+                case "getDate": {
+                    Object value = rows[cursor[0]][(Integer)args[0] - 1];
+                    wasNull[0] = value == null;
+                    return value;
+                }
+                default: throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    @Test
+    void addSheetAsyncTest() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try{
+            ExcelController excelController = new ExcelController();
+            excelController.selectWorksheet(0).selectCell(0, 0).setText("summary");
+            for(int sheetNumber = 1; sheetNumber <= 4; sheetNumber++){
+                final int number = sheetNumber;
+                excelController.addSheetAsync(sheetBuffer -> {
+                    sheetBuffer.setSheetName("sheet" + number)
+                        .setColumnSchema(new ColumnSchema().addColumn(ColumnType.TEXT).setBold(true).addColumn(ColumnType.NUMBER, "#,##0"))
+                        .setColumnWidth(0, 20)
+                        .mergedRegion(0, 0, 2, 3);
+                    for(int rowIndex = 0; rowIndex < 100; rowIndex++){
+                        sheetBuffer.appendRow("row " + rowIndex, rowIndex * number);
+                    }
+                }, executor);
+            }
+            assertEquals("sheet2", excelController.selectWorksheet(2).getSheetName());
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            excelController.writeAsync(outputStream, executor).join();
+            excelController.close();
+
+            try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))){
+                assertEquals(Arrays.asList("Sheet0", "sheet1", "sheet2", "sheet3", "sheet4"),
+                    Arrays.asList(workbook.getSheetName(0), workbook.getSheetName(1), workbook.getSheetName(2), workbook.getSheetName(3), workbook.getSheetName(4)));
+                Sheet sheet = workbook.getSheet("sheet4");
+                assertEquals(396, sheet.getRow(99).getCell(1).getNumericCellValue());
+                assertEquals(1, sheet.getNumMergedRegions());
+                assertEquals(workbook.getSheet("sheet1").getRow(5).getCell(0).getCellStyle(), sheet.getRow(5).getCell(0).getCellStyle());
+            }
+        }finally{
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void parallelCompressionTest() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try{
+            int defaultSize = 0;
+            for(CompressionLevel compressionLevel : new CompressionLevel[]{CompressionLevel.DEFAULT, CompressionLevel.FAST, CompressionLevel.BEST, CompressionLevel.STORED}){
+                for(boolean streaming : new boolean[]{false, true}){
+                    ExcelController excelController = (streaming ? new ExcelController(100) : new ExcelController())
+                        .setCompressionLevel(compressionLevel)
+                        .setCompressionExecutor(compressionLevel == CompressionLevel.DEFAULT ? null : executor);
+                    List<Object[]> rows = new ArrayList<>();
+                    for(int rowIndex = 0; rowIndex < 5000; rowIndex++){
+                        rows.add(new Object[]{"row " + rowIndex, rowIndex, "text " + (rowIndex * 31 % 977)});
+                    }
+                    excelController.selectWorksheet(0).appendRows(rows);
+
+                    byte[] bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+                    if(compressionLevel == CompressionLevel.DEFAULT && !streaming){
+                        defaultSize = bytes.length;
+                    }else if(compressionLevel == CompressionLevel.STORED){
+                        assertEquals(true, bytes.length > defaultSize * 2);
+                    }
+                    try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+                        Sheet sheet = workbook.getSheetAt(0);
+                        assertEquals("row 4999", sheet.getRow(4999).getCell(0).getStringCellValue());
+                        assertEquals(1234, sheet.getRow(1234).getCell(1).getNumericCellValue());
+                    }
+                }
+            }
+        }finally{
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void workbookTemplateTest() throws IOException {
+        ExcelController skeleton = new ExcelController();
+        skeleton.selectWorksheet(0).setSheetName("report").setColumnWidth(0, 20)
+            .selectCell(0, 0).setText("name").setBold(true).setCellColor(200, 200, 200).finishWorkcell()
+            .selectCell(0, 1).setText("value").setBold(true).setCellColor(200, 200, 200);
+        skeleton.addSheet().selectWorksheet(1).setSheetName("detail");
+        WorkbookTemplate template = WorkbookTemplate.from(skeleton);
+        skeleton.close();
+
+        ExcelController first = template.newExcelController();
+        ExcelController second = template.newExcelController(10);
+        assertEquals(Arrays.asList("report", "detail"), first.getSheetNameList());
+
+        SheetController sheetController = first.selectWorksheet(0);
+        sheetController.selectCell(1, 0).setText("a").setBold(true).setCellColor(200, 200, 200);
+        second.selectWorksheet(0).appendRows(Arrays.<Object[]>asList(new Object[]{"b", 2}));
+
+        byte[] bytes = first.getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            Sheet sheet = workbook.getSheet("report");
+            assertEquals("name", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals(sheet.getRow(0).getCell(0).getCellStyle().getIndex(), sheet.getRow(1).getCell(0).getCellStyle().getIndex());
+            assertEquals(20 * 256, sheet.getColumnWidth(0), 256);
+        }
+        bytes = second.getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            Sheet sheet = workbook.getSheet("report");
+            assertEquals("value", sheet.getRow(0).getCell(1).getStringCellValue());
+            assertEquals("b", sheet.getRow(1).getCell(0).getStringCellValue());
+            assertEquals(null, sheet.getRow(2));
+        }
+    }
+
+    @Test
+    void lazyIconImageTest() throws IOException {
+        byte[] bytes = new ExcelController().getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            assertEquals(0, workbook.getAllPictures().size());
+        }
+
+        ExcelController excelController = new ExcelController();
+        excelController.selectWorksheet(0)
+            .selectCell(0, 0)
+                .addFile(new FileObject("a".getBytes(), FileFormat.PNG, "a.png"))
+                .addFile(new FileObject("b".getBytes(), FileFormat.JPG, "b.jpg"))
+                .addFile(new FileObject("c".getBytes(), FileFormat.TEXT, "c.txt"));
+        bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            // PNG와 JPG는 같은 아이콘을 공유한다.
+            assertEquals(2, workbook.getAllPictures().size());
+        }
+    }
+
+    @Test
+    void contentDeduplicationTest() throws IOException {
+        byte[] imageBytes = ClassLoader.getSystemClassLoader().getResourceAsStream("sample/cat150x100.jpg").readAllBytes();
+        byte[] fileBytes = ClassLoader.getSystemClassLoader().getResourceAsStream("sample/TestText.txt").readAllBytes();
+        ExcelController excelController = new ExcelController();
+        SheetController sheetController = excelController.selectWorksheet(0);
+        for(int i = 0; i < 5; i++){
+            sheetController.selectCell(i, 0)
+                .addImage(new ImageObject(imageBytes.clone(), ImageFormat.PICTURE_TYPE_JPEG, "cat" + i))
+                .addFile(new FileObject(fileBytes.clone(), FileFormat.TEXT, "text" + i + ".txt"));
+        }
+        byte[] bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            // cat 이미지 1개 + TEXT 아이콘 1개
+            assertEquals(2, workbook.getAllPictures().size());
+            assertEquals(1, workbook.getPackage().getPartsByName(Pattern.compile("/xl/embeddings/.*")).size());
+        }
+
+        // template에 이미 기록된 Part와 내용을 비교하여 공유한다.
+        ExcelController skeleton = new ExcelController();
+        skeleton.selectWorksheet(0).selectCell(0, 0)
+            .addImage(new ImageObject(imageBytes.clone(), ImageFormat.PICTURE_TYPE_JPEG, "cat"))
+            .addFile(new FileObject(fileBytes.clone(), FileFormat.TEXT, "text.txt"));
+        WorkbookTemplate template = WorkbookTemplate.from(skeleton);
+        skeleton.close();
+        excelController = template.newExcelController();
+        excelController.selectWorksheet(0).selectCell(1, 0)
+            .addImage(new ImageObject(imageBytes.clone(), ImageFormat.PICTURE_TYPE_JPEG, "cat copy"))
+            .addFile(new FileObject(fileBytes.clone(), FileFormat.TEXT, "text copy.txt"));
+        bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            assertEquals(2, workbook.getAllPictures().size());
+            assertEquals(1, workbook.getPackage().getPartsByName(Pattern.compile("/xl/embeddings/.*")).size());
+        }
+    }
+
+    @Test
+    void imageResamplerTest() throws IOException {
+        byte[] imageBytes = ClassLoader.getSystemClassLoader().getResourceAsStream("sample/dog200x200.jpg").readAllBytes();
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            ExcelController excelController = new ExcelController()
+                .setImageResampler(new ImageResampler().setExecutor(executorService).setJpegQuality(0.7f));
+            SheetController sheetController = excelController.selectWorksheet(0).setColumnWidthInPixels(0, 50);
+            for(int i = 0; i < 3; i++){
+                sheetController.selectCell(i, 0).addImage(new ImageObject(imageBytes, ImageFormat.PICTURE_TYPE_JPEG, "dog" + i));
+            }
+            // 같은 imageKey라도 더 넓은 Cell에서는 그 크기로 따로 축소된다.
+            sheetController.setColumnWidthInPixels(1, 120).selectCell(0, 1).addImage(new ImageObject(imageBytes, ImageFormat.PICTURE_TYPE_JPEG, "dog0"));
+            byte[] bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+            try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+                assertEquals(2, workbook.getAllPictures().size());
+                ImageObject resampled = new ImageObject(workbook.getAllPictures().get(0).getData(), ImageFormat.PICTURE_TYPE_JPEG, "resampled");
+                ImageObject wider = new ImageObject(workbook.getAllPictures().get(1).getData(), ImageFormat.PICTURE_TYPE_JPEG, "wider");
+                assertEquals(true, resampled.getWidth() < wider.getWidth());
+                assertEquals(true, wider.getWidth() < 200);
+                assertEquals(true, resampled.getImageByteArray().length < imageBytes.length);
+            }
+
+            // 축소한 결과가 원본보다 작지 않으면 원본을 그대로 저장하며, 원본은 보관하지 않는다.
+            ImageResampler imageResampler = new ImageResampler().setJpegQuality(1f).setMaxCacheBytes(0);
+            excelController = new ExcelController().setImageResampler(imageResampler);
+            excelController.selectWorksheet(0).setColumnWidthInPixels(0, 199)
+                .selectCell(0, 0).addImage(new ImageObject(imageBytes, ImageFormat.PICTURE_TYPE_JPEG, "dog"));
+            bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+            try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+                assertEquals(true, Arrays.equals(imageBytes, workbook.getAllPictures().get(0).getData()));
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void imageObjectLoaderTest(@TempDir Path tempDir) throws IOException {
+        byte[] catBytes = ClassLoader.getSystemClassLoader().getResourceAsStream("sample/cat150x100.jpg").readAllBytes();
+        Path dogPath = tempDir.resolve("dog.jpg");
+        Files.write(dogPath, ClassLoader.getSystemClassLoader().getResourceAsStream("sample/dog200x200.jpg").readAllBytes());
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            List<ImageObject> imageObjectList = new ImageObjectLoader()
+                .setExecutor(executorService)
+                .setHashContent(true)
+                .add("dog", dogPath)
+                .add("cat", catBytes)
+                .add("cat2", () -> catBytes)
+                .load();
+            assertEquals(Arrays.asList("dog", "cat", "cat2"), Arrays.asList(imageObjectList.get(0).getImageKey(), imageObjectList.get(1).getImageKey(), imageObjectList.get(2).getImageKey()));
+            assertEquals(ImageFormat.PICTURE_TYPE_JPEG, imageObjectList.get(0).getImageFormat());
+            assertEquals(200, imageObjectList.get(0).getWidth());
+            assertEquals(150, imageObjectList.get(1).getWidth());
+
+            ImageObjectLoader unknownLoader = new ImageObjectLoader().setExecutor(executorService).add("text", "text".getBytes());
+            assertThrows(IllegalArgumentException.class, () -> unknownLoader.load());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    void deferredPayloadTest(@TempDir Path tempDir) throws IOException, Ole10NativeException {
+        byte[] dogBytes = ClassLoader.getSystemClassLoader().getResourceAsStream("sample/dog200x200.jpg").readAllBytes();
+        byte[] excelBytes = ClassLoader.getSystemClassLoader().getResourceAsStream("sample/TestExcel.xlsx").readAllBytes();
+        Path dogPath = tempDir.resolve("dog.jpg");
+        Files.write(dogPath, dogBytes);
+        Path excelPath = tempDir.resolve("TestExcel.xlsx");
+        Files.write(excelPath, excelBytes);
+
+        ExcelController excelController = new ExcelController();
+        excelController.selectWorksheet(0)
+            .selectCell(0, 0)
+                .addImage(new ImageObject(dogPath, ImageFormat.PICTURE_TYPE_JPEG, "dog"))
+                .addFile(new FileObject(excelPath, FileFormat.EXCEL, "TestExcel.xlsx"))
+            .finishWorkcell()
+            .selectCell(1, 0)
+                .addImage(new ImageObject(ByteBuffer.wrap(dogBytes), ImageFormat.PICTURE_TYPE_JPEG, "dog2"))
+                .addFile(new FileObject(new ByteArrayInputStream(excelBytes), FileFormat.EXCEL, "TestExcel2.xlsx"))
+            .finishWorkcell()
+            .selectCell(2, 0)
+                .addImage(new ImageObject(dogBytes.clone(), ImageFormat.PICTURE_TYPE_JPEG, "dog3"))
+                .addFile(new FileObject(excelBytes.clone(), FileFormat.EXCEL, "TestExcel3.xlsx"));
+        byte[] bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            // Path, ByteBuffer, InputStream, byte[]라도 내용이 같으면 하나의 Picture, OLE Package를 공유한다.(dog + EXCEL 아이콘)
+            assertEquals(2, workbook.getAllPictures().size());
+            assertEquals(true, Arrays.equals(dogBytes, workbook.getAllPictures().get(0).getData()));
+            List<String> embeddedNames = new ArrayList<>();
+            for(PackagePart packagePart : workbook.getPackage().getPartsByName(Pattern.compile("/xl/embeddings/.*"))){
+                try(POIFSFileSystem poifs = new POIFSFileSystem(packagePart.getInputStream())){
+                    Ole10Native ole10Native = Ole10Native.createFromEmbeddedOleObject(poifs);
+                    assertEquals(true, Arrays.equals(excelBytes, ole10Native.getDataBuffer()));
+                    embeddedNames.add(ole10Native.getFileName());
+                }
+            }
+            assertEquals(Arrays.asList("TestExcel.xlsx"), embeddedNames);
+        }
+
+        // ImageResampler로 축소한 결과가 원본보다 작지 않으면 원본 파일을 그대로 기록한다.
+        excelController = new ExcelController().setImageResampler(new ImageResampler().setJpegQuality(1f));
+        excelController.selectWorksheet(0).setColumnWidthInPixels(0, 199)
+            .selectCell(0, 0).addImage(new ImageObject(dogPath, ImageFormat.PICTURE_TYPE_JPEG, "dog"));
+        bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            assertEquals(true, Arrays.equals(dogBytes, workbook.getAllPictures().get(0).getData()));
+        }
+    }
+
+    @Test
+    void incrementalTextTest() throws IOException {
+        ExcelController excelController = new ExcelController();
+        CellController cellController = excelController.selectWorksheet(0).setColumnWidthInPixels(0, 100).selectCell(0, 0);
+        StringBuilder expected = new StringBuilder();
+        for(int i = 0; i < 100; i++){
+            cellController.addText("log " + i + "\n");
+            expected.append("log ").append(i).append('\n');
+        }
+        cellController.setText("replaced").addText(" text");
+        cellController.finishWorkcell()
+            .selectCell(1, 0).addText(expected.toString());
+        byte[] bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals("replaced text", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals(expected.toString(), sheet.getRow(1).getCell(0).getStringCellValue());
+            // 이어 붙인 중간 Text는 Shared String으로 남지 않는다.(setText()로 바로 입력한 "replaced"만 남는다.)
+            assertEquals(3, workbook.getSharedStringSource().getUniqueCount());
+            assertEquals(true, sheet.getRow(1).getHeightInPoints() > 100 * 10);
+        }
+    }
+
+    @Test
+    void glyphWidthTableTest() throws IOException {
+        // 기존 추정 폭 표의 범위(5 ~ 21pt)를 벗어난 Font 크기도 Row Height를 계산한다.
+        ExcelController excelController = new ExcelController();
+        excelController.selectWorksheet(0).setColumnWidthInPixels(0, 100)
+            .selectCell(0, 0).setFontPoints((short)30).addText("large\nfont")
+            .finishWorkcell().selectCell(1, 0).setFontPoints((short)4).addText("small");
+        byte[] bytes = excelController.getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(true, sheet.getRow(0).getHeightInPoints() >= 60);
+            assertEquals("small", sheet.getRow(1).getCell(0).getStringCellValue());
+        }
+    }
+
+    @Test
+    void deferredRowHeightTest() throws IOException {
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            float[] expected = writeRowHeights(new ExcelController(), false, false);
+            float[] deferred = writeRowHeights(new ExcelController().setDeferredRowHeight(true).setRowHeightExecutor(executorService), true, false);
+            float[] streaming = writeRowHeights(new ExcelController(10).setDeferredRowHeight(true), true, false);
+            float[] dropped = writeRowHeights(new ExcelController().setDeferredRowHeight(true), true, true);
+            assertEquals(true, expected[0] > 30); // 3 Line
+            assertEquals(true, Arrays.equals(expected, deferred));
+            assertEquals(true, Arrays.equals(expected, streaming));
+            assertEquals(true, Arrays.equals(expected, dropped));
+        } finally {
+            executorService.shutdown();
+        }
+
+        // writeColumn()으로 덮어쓴 Cell의 Text는 Row Height에 반영하지 않는다.
+        ExcelController excelController = new ExcelController().setDeferredRowHeight(true);
+        SheetController sheetController = excelController.selectWorksheet(0).setColumnWidthInPixels(0, 60);
+        sheetController.selectCell(0, 0).addText("line\nline\nline\nline");
+        sheetController.writeColumn(0, 0, new int[]{1});
+        byte[] bytes = sheetController.finishWorksheet().getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(sheet.getDefaultRowHeightInPoints(), sheet.getRow(0).getHeightInPoints());
+        }
+    }
+
+    private static float[] writeRowHeights(ExcelController excelController, boolean reverse, boolean dropOnFinish) throws IOException {
+        int rowCount = 3000;
+        SheetController sheetController = excelController.selectWorksheet(0).setColumnWidthInPixels(0, 60).setColumnWidthInPixels(1, 200);
+        if(dropOnFinish){
+            sheetController.setCellRetentionPolicy(CellRetentionPolicy.DROP_ON_FINISH);
+        }
+        for(int rowIndex = 0; rowIndex < rowCount; rowIndex++){
+            // reverse이면 Row 안의 Cell을 반대 순서로 채운다.
+            for(int n = 0; n < 2; n++){
+                int colIndex = reverse ? 1 - n : n;
+                CellController cellController = sheetController.selectCell(rowIndex, colIndex).addText("row " + rowIndex + (colIndex == 0 ? "\nline\nline" : ""));
+                if(dropOnFinish){
+                    cellController.finishWorkcell();
+                }
+            }
+        }
+        byte[] bytes = sheetController.finishWorksheet().getByteArrayOutputStreamAndClose().toByteArray();
+        try(XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))){
+            Sheet sheet = workbook.getSheetAt(0);
+            float[] heights = new float[rowCount];
+            for(int rowIndex = 0; rowIndex < rowCount; rowIndex++){
+                heights[rowIndex] = sheet.getRow(rowIndex).getHeightInPoints();
+            }
+            return heights;
+        }
+    }
 }
@@ -0,0 +1,128 @@
+package excel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.ref.Reference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+/**
+ **<pre>
+ **SheetController의 Cell 등록부(cellControllerMap) 비교.
+ **기존: HashMap<String, CellController>, Key "R{rowIndex}C{colIndex}"
+ **변경: LongKeyMap<CellController>, Key (long)rowIndex << 32 | colIndex
+ **"benchmark" Tag로 구분되어 test에서는 실행되지 않으며, gradle benchmark로 실행한다.
+ **결과(시간, Heap)는 stdout에 출력하지 않고 TestReporter로 기록한다.(IDE, JUnit Console Launcher 등에서 확인)
+ * </pre>
+ */
+@Tag("benchmark")
+class CellRegistryBenchmark {
+    private static final int ROW_COUNT = 20_000;
+    private static final int COL_COUNT = 10;
+    private static final int ROUNDS = 5;
+
+    private static Map<String, Object> fillStringKeyMap(final Object value){
+        final Map<String, Object> map = new HashMap<>();
+        for(int r = 0; r < ROW_COUNT; r++){
+            for(int c = 0; c < COL_COUNT; c++){
+                String key = "R" + r + "C" + c;
+                if(!map.containsKey(key)){
+                    map.put(key, value);
+                }
+            }
+        }
+        for(int r = 0; r < ROW_COUNT; r++){
+            for(int c = 0; c < COL_COUNT; c++){
+                String key = "R" + r + "C" + c;
+                if(map.containsKey(key)){
+                    map.get(key);
+                }
+            }
+        }
+        assertEquals(ROW_COUNT * COL_COUNT, map.size());
+        return map;
+    }
+
+    private static LongKeyMap<Object> fillLongKeyMap(final Object value){
+        final LongKeyMap<Object> map = new LongKeyMap<>();
+        for(int r = 0; r < ROW_COUNT; r++){
+            for(int c = 0; c < COL_COUNT; c++){
+                long key = SheetController.getCellControllerKey(r, c);
+                if(map.get(key) == null){
+                    map.put(key, value);
+                }
+            }
+        }
+        for(int r = 0; r < ROW_COUNT; r++){
+            for(int c = 0; c < COL_COUNT; c++){
+                map.get(SheetController.getCellControllerKey(r, c));
+            }
+        }
+        assertEquals(ROW_COUNT * COL_COUNT, map.size());
+        return map;
+    }
+
+    private static ExcelController selectCells(){
+        final ExcelController excelController = new ExcelController();
+        final SheetController sheetController = excelController.selectWorksheet(0);
+        for(int r = 0; r < ROW_COUNT; r++){
+            for(int c = 0; c < COL_COUNT; c++){
+                sheetController.selectCell(r, c);
+            }
+        }
+        for(int r = 0; r < ROW_COUNT; r++){
+            for(int c = 0; c < COL_COUNT; c++){
+                sheetController.selectCell(r, c);
+            }
+        }
+        return excelController;
+    }
+
+    /**
+     * ROUNDS번 실행한 중 가장 짧은 시간(ns)과, 마지막 결과가 차지하는 Heap(byte)을 구한다.
+     */
+    private static long[] measure(final Supplier<Object> round){
+        long bestNanos = Long.MAX_VALUE;
+        long heapBytes = 0;
+        for(int i = 0; i < ROUNDS; i++){
+            final long usedBefore = usedHeap();
+            final long start = System.nanoTime();
+            final Object result = round.get();
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+            heapBytes = usedHeap() - usedBefore;
+            Reference.reachabilityFence(result);
+        }
+        return new long[]{bestNanos, heapBytes};
+    }
+
+    private static long usedHeap(){
+        final Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++){
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(final TestReporter testReporter, final String name, final long[] result){
+        testReporter.publishEntry(name, String.format(
+            "%,d cells (best of %d): %,d us, heap %,d KB", ROW_COUNT * COL_COUNT, ROUNDS, result[0] / 1000, result[1] / 1024
+        ));
+    }
+
+    @Test
+    void compareCellRegistry(final TestReporter testReporter){
+        final Object value = new Object();
+        report(testReporter, "HashMap<String>", measure(() -> fillStringKeyMap(value)));
+        report(testReporter, "LongKeyMap", measure(() -> fillLongKeyMap(value)));
+    }
+
+    @Test
+    void selectCell(final TestReporter testReporter){
+        report(testReporter, "SheetController.selectCell", measure(CellRegistryBenchmark::selectCells));
+    }
+}
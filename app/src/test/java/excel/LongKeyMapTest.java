@@ -0,0 +1,62 @@
+package excel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * LongKeyMap(SheetController의 Cell 등록부)의 삭제 후 probe chain 확인.
+ */
+class LongKeyMapTest {
+
+    private static LongKeyMap<Long> createMap(){
+        final LongKeyMap<Long> map = new LongKeyMap<>();
+        for(int r = 0; r < 1000; r++){
+            for(int c = 0; c < 4; c++){
+                long key = SheetController.getCellControllerKey(r, c);
+                map.put(key, key);
+            }
+        }
+        return map;
+    }
+
+    private static void assertOddRowsRemain(final LongKeyMap<Long> map){
+        assertEquals(2000, map.size());
+        for(int r = 0; r < 1000; r++){
+            for(int c = 0; c < 4; c++){
+                long key = SheetController.getCellControllerKey(r, c);
+                if(r % 2 == 0){
+                    assertNull(map.get(key));
+                }else{
+                    assertEquals(key, map.get(key));
+                }
+            }
+        }
+    }
+
+    @Test
+    void remove(){
+        final LongKeyMap<Long> map = createMap();
+        for(int r = 0; r < 1000; r += 2){
+            for(int c = 0; c < 4; c++){
+                long key = SheetController.getCellControllerKey(r, c);
+                assertEquals(key, map.remove(key));
+            }
+        }
+        assertOddRowsRemain(map);
+    }
+
+    @Test
+    void removeIf(){
+        final LongKeyMap<Long> map = createMap();
+        final List<Long> removedList = new ArrayList<>();
+        final int removedCount = map.removeIf(key -> (key >>> 32) % 2 == 0, removedList::add);
+        assertEquals(2000, removedCount);
+        assertEquals(2000, removedList.size());
+        assertOddRowsRemain(map);
+    }
+}